@@ -0,0 +1,34 @@
+package com.github.wolray.seq.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author wolray
+ */
+public final class BenchData {
+    public static final String INTEGER = "Integer";
+    public static final String STRING = "String";
+
+    private BenchData() {}
+
+    public static List<Object> of(String type, int size) {
+        Random random = new Random(42);
+        List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int v = random.nextInt(size);
+            list.add(STRING.equals(type) ? "s" + v : (Object)v);
+        }
+        return list;
+    }
+
+    public static int[] ints(int size) {
+        Random random = new Random(42);
+        int[] a = new int[size];
+        for (int i = 0; i < size; i++) {
+            a[i] = random.nextInt(size);
+        }
+        return a;
+    }
+}
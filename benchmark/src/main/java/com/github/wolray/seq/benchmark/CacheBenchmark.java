@@ -0,0 +1,93 @@
+package com.github.wolray.seq.benchmark;
+
+import com.github.wolray.seq.BatchedSeq;
+import com.github.wolray.seq.Seq;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filling and replaying the default cache: the chunked {@link BatchedSeq} against an
+ * {@link ArrayList} and the former {@code LinkedList} of {@code ArrayList} batches. Run with
+ * {@code -prof gc}; {@code gc.alloc.rate.norm} of the {@code fill} methods divided by {@code size}
+ * is the memory cost per cached element.
+ *
+ * @author wolray
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheBenchmark {
+    @Param({"1000", "1000000"})
+    public int size;
+
+    Seq<Object> seq;
+    BatchedSeq<Object> batched;
+    ArrayList<Object> arrayList;
+    LinkedList<ArrayList<Object>> linked;
+
+    @Setup
+    public void setup() {
+        List<Object> list = BenchData.of(BenchData.INTEGER, size);
+        seq = list::forEach;
+        batched = fillBatched();
+        arrayList = fillArrayList();
+        linked = fillLinked();
+    }
+
+    @Benchmark
+    public ArrayList<Object> fillArrayList() {
+        ArrayList<Object> list = new ArrayList<>();
+        seq.consume(list::add);
+        return list;
+    }
+
+    @Benchmark
+    public BatchedSeq<Object> fillBatched() {
+        return seq.toBatched();
+    }
+
+    @Benchmark
+    public LinkedList<ArrayList<Object>> fillLinked() {
+        LinkedList<ArrayList<Object>> list = new LinkedList<>();
+        int[] state = {10, 0};
+        seq.consume(t -> {
+            ArrayList<Object> cur = list.peekLast();
+            if (cur == null || cur.size() == state[0]) {
+                state[0] = Math.min(300, Math.max(state[0], state[1] >> 1));
+                cur = new ArrayList<>(state[0]);
+                list.add(cur);
+            }
+            cur.add(t);
+            state[1]++;
+        });
+        return list;
+    }
+
+    @Benchmark
+    public void replayArrayList(Blackhole bh) {
+        arrayList.forEach(bh::consume);
+    }
+
+    @Benchmark
+    public void replayBatched(Blackhole bh) {
+        batched.consume(bh::consume);
+    }
+
+    @Benchmark
+    public void replayLinked(Blackhole bh) {
+        linked.forEach(ls -> ls.forEach(bh::consume));
+    }
+
+    @Benchmark
+    public Object[] toArrayBatched() {
+        return batched.toArray();
+    }
+}
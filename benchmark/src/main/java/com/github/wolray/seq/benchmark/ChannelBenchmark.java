@@ -0,0 +1,75 @@
+package com.github.wolray.seq.benchmark;
+
+import com.github.wolray.seq.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cross-thread handoff of {@code toChannel} on {@link SpscRing} with each wait strategy, against a
+ * {@link HotChannel} woken by a monitor per element and against {@link BoundedChannel}. Throughput
+ * counts elements per second, average time is the per-element handoff cost.
+ *
+ * @author wolray
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(ChannelBenchmark.SIZE)
+public class ChannelBenchmark {
+    static final int SIZE = 1 << 20;
+
+    @Param({"1024"})
+    public int capacity;
+    @Param({"SPIN", "YIELD", "PARK", "BLOCKING"})
+    public SpscRing.Wait wait;
+
+    ExecutorService executor;
+    Async async;
+    Seq<Integer> seq;
+
+    @Setup
+    public void setup() {
+        executor = Executors.newCachedThreadPool();
+        async = Async.of(executor);
+        seq = IntSeq.range(SIZE).boxed();
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public long spscRing() {
+        return async.toChannel(capacity, wait, seq).reduce(new long[1], (a, t) -> a[0] += t)[0];
+    }
+
+    @Benchmark
+    public long hotChannel() {
+        HotChannel<Integer> channel = new HotChannel<>();
+        async.submit(() -> {
+            seq.consume(t -> {
+                channel.offer(t);
+                channel.easyNotify();
+            });
+            channel.close();
+        });
+        return channel.reduce(new long[1], (a, t) -> a[0] += t)[0];
+    }
+
+    @Benchmark
+    public long boundedChannel() {
+        BoundedChannel<Integer> channel = new BoundedChannel<>(capacity);
+        async.submit(() -> {
+            seq.consume(channel::offer);
+            channel.close();
+        });
+        return channel.reduce(new long[1], (a, t) -> a[0] += t)[0];
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.wolray.seq.benchmark;
+
+import com.github.wolray.seq.IntSeq;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * @author wolray
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntSeqBenchmark {
+    @Param({"1000", "1000000"})
+    public int size;
+
+    int[] array;
+
+    @Setup
+    public void setup() {
+        array = BenchData.ints(size);
+    }
+
+    @Benchmark
+    public int intSeqRangeMapFilterSum() {
+        return IntSeq.range(size).map(i -> i * 31).filter(i -> (i & 1) == 0).sum();
+    }
+
+    @Benchmark
+    public int intStreamRangeMapFilterSum() {
+        return IntStream.range(0, size).map(i -> i * 31).filter(i -> (i & 1) == 0).sum();
+    }
+
+    @Benchmark
+    public int intSeqArrayTake() {
+        return IntSeq.of(array).take(size >> 1).sum();
+    }
+
+    @Benchmark
+    public int intStreamArrayLimit() {
+        return Arrays.stream(array).limit(size >> 1).sum();
+    }
+
+    @Benchmark
+    public int[] intSeqToArray() {
+        return IntSeq.of(array).filter(i -> (i & 1) == 0).toArray();
+    }
+
+    @Benchmark
+    public int[] intStreamToArray() {
+        return Arrays.stream(array).filter(i -> (i & 1) == 0).toArray();
+    }
+}
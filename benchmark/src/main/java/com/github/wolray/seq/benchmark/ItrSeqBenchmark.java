@@ -0,0 +1,74 @@
+package com.github.wolray.seq.benchmark;
+
+import com.github.wolray.seq.ItrSeq;
+import com.github.wolray.seq.Seq;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pull path: {@link ItrSeq} operators chained as iterators, mostly {@code PickItr}.
+ *
+ * @author wolray
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItrSeqBenchmark {
+    @Param({"1000", "1000000"})
+    public int size;
+    @Param({BenchData.INTEGER, BenchData.STRING})
+    public String type;
+
+    List<Object> list;
+    ItrSeq<Object> seq;
+
+    @Setup
+    public void setup() {
+        list = BenchData.of(type, size);
+        seq = list::iterator;
+    }
+
+    @Benchmark
+    public void itrMapFilter(Blackhole bh) {
+        for (Integer i : seq.map(Object::hashCode).filter(i -> (i & 1) == 0)) {
+            bh.consume(i);
+        }
+    }
+
+    @Benchmark
+    public void streamMapFilter(Blackhole bh) {
+        list.stream().map(Object::hashCode).filter(i -> (i & 1) == 0).forEach(bh::consume);
+    }
+
+    @Benchmark
+    public void itrDropTake(Blackhole bh) {
+        for (Object o : seq.drop(size >> 2).take(size >> 1)) {
+            bh.consume(o);
+        }
+    }
+
+    @Benchmark
+    public void streamSkipLimit(Blackhole bh) {
+        list.stream().skip(size >> 2).limit(size >> 1).forEach(bh::consume);
+    }
+
+    @Benchmark
+    public void itrFlat(Blackhole bh) {
+        for (Object o : Seq.flatIterable(list, list.subList(0, size >> 1))) {
+            bh.consume(o);
+        }
+    }
+
+    @Benchmark
+    public void itrTakeWhile(Blackhole bh) {
+        for (Object o : seq.takeWhile(o -> o.hashCode() != -1)) {
+            bh.consume(o);
+        }
+    }
+}
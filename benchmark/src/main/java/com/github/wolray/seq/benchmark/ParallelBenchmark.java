@@ -0,0 +1,64 @@
+package com.github.wolray.seq.benchmark;
+
+import com.github.wolray.seq.Async;
+import com.github.wolray.seq.IntSeq;
+import com.github.wolray.seq.Seq;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Batched {@code parallel} against per-element {@code parallelEach} and parallel streams.
+ *
+ * @author wolray
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelBenchmark {
+    @Param({"10000", "1000000"})
+    public int size;
+    @Param({"0", "1000"})
+    public int work;
+
+    Seq<Integer> seq;
+    Async async;
+
+    @Setup
+    public void setup() {
+        seq = IntSeq.range(size).boxed();
+        async = Async.common();
+    }
+
+    private long spin(int t) {
+        Blackhole.consumeCPU(work);
+        return t;
+    }
+
+    @Benchmark
+    public long seqParallel() {
+        LongAdder adder = new LongAdder();
+        seq.parallel(async).consume(t -> adder.add(spin(t)));
+        return adder.sum();
+    }
+
+    @Benchmark
+    public long seqParallelEach() {
+        LongAdder adder = new LongAdder();
+        seq.parallelEach(async).consume(t -> adder.add(spin(t)));
+        return adder.sum();
+    }
+
+    @Benchmark
+    public long streamParallel() {
+        LongAdder adder = new LongAdder();
+        IntStream.range(0, size).boxed().parallel().forEach(t -> adder.add(spin(t)));
+        return adder.sum();
+    }
+}
@@ -0,0 +1,108 @@
+package com.github.wolray.seq.benchmark;
+
+import com.github.wolray.seq.ItrUtil;
+import com.github.wolray.seq.PickItr;
+import com.github.wolray.seq.Seq;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Pulling many short iterators through {@link PickItr}: ending with {@code end()}
+ * versus ending with {@link Seq#stop()}.
+ *
+ * @author wolray
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PickItrBenchmark {
+    @Param({"2", "16", "256"})
+    public int length;
+    public int count = 10000;
+
+    List<List<Object>> lists;
+    Predicate<Object> predicate = o -> (o.hashCode() & 1) == 0;
+
+    @Setup
+    public void setup() {
+        List<Object> data = BenchData.of(BenchData.INTEGER, count * length);
+        lists = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lists.add(data.subList(i * length, (i + 1) * length));
+        }
+    }
+
+    @Benchmark
+    public void filterEnd(Blackhole bh) {
+        for (List<Object> list : lists) {
+            Iterator<Object> iterator = ItrUtil.filter(list.iterator(), predicate);
+            while (iterator.hasNext()) {
+                bh.consume(iterator.next());
+            }
+        }
+    }
+
+    @Benchmark
+    public void filterStop(Blackhole bh) {
+        for (List<Object> list : lists) {
+            Iterator<Object> iterator = legacyFilter(list.iterator(), predicate);
+            while (iterator.hasNext()) {
+                bh.consume(iterator.next());
+            }
+        }
+    }
+
+    @Benchmark
+    public void takeWhileEnd(Blackhole bh) {
+        for (List<Object> list : lists) {
+            Iterator<Object> iterator = ItrUtil.takeWhile(list.iterator(), o -> true);
+            while (iterator.hasNext()) {
+                bh.consume(iterator.next());
+            }
+        }
+    }
+
+    @Benchmark
+    public void takeWhileStop(Blackhole bh) {
+        for (List<Object> list : lists) {
+            Iterator<Object> iterator = legacyTakeWhile(list.iterator(), o -> true);
+            while (iterator.hasNext()) {
+                bh.consume(iterator.next());
+            }
+        }
+    }
+
+    static <T> Iterator<T> legacyFilter(Iterator<T> iterator, Predicate<T> predicate) {
+        return new PickItr<T>() {
+            @Override
+            public T pick() {
+                while (iterator.hasNext()) {
+                    T t = iterator.next();
+                    if (predicate.test(t)) {
+                        return t;
+                    }
+                }
+                return Seq.stop();
+            }
+        };
+    }
+
+    static <T> Iterator<T> legacyTakeWhile(Iterator<T> iterator, Predicate<T> predicate) {
+        return new PickItr<T>() {
+            @Override
+            public T pick() {
+                T t = ItrUtil.pop(iterator);
+                return predicate.test(t) ? t : Seq.stop();
+            }
+        };
+    }
+}
@@ -0,0 +1,108 @@
+package com.github.wolray.seq.benchmark;
+
+import com.github.wolray.seq.ArraySeq;
+import com.github.wolray.seq.Async;
+import com.github.wolray.seq.Reducer;
+import com.github.wolray.seq.Seq;
+import com.github.wolray.seq.SeqMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Terminal {@link Reducer}/{@code Transducer} operations, {@code groupBy} and top-K selection.
+ *
+ * @author wolray
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReducerBenchmark {
+    @Param({"1000", "1000000"})
+    public int size;
+    @Param({BenchData.INTEGER, BenchData.STRING})
+    public String type;
+    @Param({"16", "4096"})
+    public int groups;
+
+    List<Object> list;
+    Seq<Object> seq;
+
+    @Setup
+    public void setup() {
+        list = BenchData.of(type, size);
+        seq = list::forEach;
+    }
+
+    @Benchmark
+    public double seqAverage() {
+        return seq.reduce(Reducer.average(Object::hashCode));
+    }
+
+    @Benchmark
+    public double streamAverage() {
+        return list.stream().collect(Collectors.averagingInt(Object::hashCode));
+    }
+
+    @Benchmark
+    public String seqJoin() {
+        return seq.reduce(Reducer.join(",", Object::toString));
+    }
+
+    @Benchmark
+    public String streamJoin() {
+        return list.stream().map(Object::toString).collect(Collectors.joining(","));
+    }
+
+    @Benchmark
+    public SeqMap<Integer, ArraySeq<Object>> seqGroupBy() {
+        return seq.groupBy(o -> o.hashCode() % groups);
+    }
+
+    @Benchmark
+    public Map<Integer, List<Object>> streamGroupBy() {
+        return list.stream().collect(Collectors.groupingBy(o -> o.hashCode() % groups));
+    }
+
+    @Benchmark
+    public SeqMap<Integer, Integer> seqGroupByCount() {
+        return seq.groupBy(o -> o.hashCode() % groups, Reducer.count());
+    }
+
+    @Benchmark
+    public Map<Integer, Long> streamGroupByCount() {
+        return list.stream().collect(Collectors.groupingBy(o -> o.hashCode() % groups, Collectors.counting()));
+    }
+
+    @Benchmark
+    public SeqMap<Integer, Integer> seqGroupByCountParallel() {
+        return seq.reduceParallel(Async.common(), Reducer.groupBy(o -> o.hashCode() % groups, Reducer.count()));
+    }
+
+    @Benchmark
+    public Map<Integer, Long> streamGroupByCountParallel() {
+        return list.parallelStream().collect(Collectors.groupingBy(o -> o.hashCode() % groups, Collectors.counting()));
+    }
+
+    @Benchmark
+    public ArraySeq<Object> seqSortTake100() {
+        return seq.sortByDesc(Object::hashCode).take(100).toList();
+    }
+
+    @Benchmark
+    public ArraySeq<Object> seqTopK100() {
+        return seq.topKByInt(100, Object::hashCode);
+    }
+
+    @Benchmark
+    public List<Object> streamSortedLimit100() {
+        return list.stream().sorted(Comparator.comparingInt(Object::hashCode).reversed()).limit(100).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.wolray.seq.benchmark;
+
+import com.github.wolray.seq.ArraySeq;
+import com.github.wolray.seq.Reducer;
+import com.github.wolray.seq.Seq;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Push path: every operator is driven through {@link Seq#consume}.
+ *
+ * @author wolray
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeqBenchmark {
+    @Param({"1000", "1000000"})
+    public int size;
+    @Param({BenchData.INTEGER, BenchData.STRING})
+    public String type;
+
+    List<Object> list;
+    Seq<Object> seq;
+
+    @Setup
+    public void setup() {
+        list = BenchData.of(type, size);
+        seq = list::forEach;
+    }
+
+    @Benchmark
+    public int seqMapFilterCount() {
+        return seq.map(Object::hashCode).filter(i -> (i & 1) == 0).count();
+    }
+
+    @Benchmark
+    public long streamMapFilterCount() {
+        return list.stream().map(Object::hashCode).filter(i -> (i & 1) == 0).count();
+    }
+
+    @Benchmark
+    public int seqTake() {
+        return seq.take(size >> 1).sumInt(Object::hashCode);
+    }
+
+    @Benchmark
+    public int streamTake() {
+        return list.stream().limit(size >> 1).mapToInt(Object::hashCode).sum();
+    }
+
+    @Benchmark
+    public int seqReduce() {
+        return seq.reduce(Reducer.sumInt(Object::hashCode));
+    }
+
+    @Benchmark
+    public int streamReduce() {
+        return list.stream().mapToInt(Object::hashCode).reduce(0, Integer::sum);
+    }
+
+    @Benchmark
+    public ArraySeq<Integer> seqToList() {
+        return seq.map(Object::hashCode).toList();
+    }
+
+    @Benchmark
+    public List<Integer> streamToList() {
+        return list.stream().map(Object::hashCode).collect(Collectors.toList());
+    }
+}
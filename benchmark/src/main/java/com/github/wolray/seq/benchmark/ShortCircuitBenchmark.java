@@ -0,0 +1,82 @@
+package com.github.wolray.seq.benchmark;
+
+import com.github.wolray.seq.IntSeq;
+import com.github.wolray.seq.Seq;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Short-circuiting a long push source via {@code StopFlag} versus the legacy
+ * {@code consumeTillStop} + {@code Seq.stop()} protocol, through {@code depth} mapping stages.
+ *
+ * @author wolray
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShortCircuitBenchmark {
+    @Param({"10", "1000"})
+    public int limit;
+    @Param({"1", "8"})
+    public int depth;
+
+    Seq<Integer> seq;
+    IntSeq intSeq;
+
+    @Setup
+    public void setup() {
+        Seq<Integer> s = Seq.gen(0, i -> i + 1);
+        IntSeq is = IntSeq.range(Integer.MAX_VALUE);
+        for (int i = 0; i < depth; i++) {
+            s = s.map(t -> t + 1);
+            is = is.map(t -> t + 1);
+        }
+        seq = s;
+        intSeq = is;
+    }
+
+    @Benchmark
+    public int seqTakeFlag() {
+        return seq.take(limit).sumInt(t -> t);
+    }
+
+    @Benchmark
+    public int seqTakeException() {
+        int[] a = {0, limit};
+        seq.consumeTillStop((Consumer<Integer>)t -> {
+            a[0] += t;
+            if (--a[1] == 0) {
+                Seq.stop();
+            }
+        });
+        return a[0];
+    }
+
+    @Benchmark
+    public Integer seqFindFlag() {
+        return seq.find(t -> t >= limit).orElse(null);
+    }
+
+    @Benchmark
+    public int intSeqTakeFlag() {
+        return intSeq.take(limit).sum();
+    }
+
+    @Benchmark
+    public int intSeqTakeException() {
+        int[] a = {0, limit};
+        intSeq.consumeTillStop((IntConsumer)t -> {
+            a[0] += t;
+            if (--a[1] == 0) {
+                Seq.stop();
+            }
+        });
+        return a[0];
+    }
+}
@@ -0,0 +1,83 @@
+package com.github.wolray.seq.benchmark;
+
+import com.github.wolray.seq.ArraySeq;
+import com.github.wolray.seq.Seq;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Sorting records by a {@code long} timestamp: boxed {@code sortBy} and {@code sortCached} against the
+ * radix-sorted {@code sortByLong}, their parallel variants and a stream sorted with
+ * {@code Comparator.comparingLong}.
+ *
+ * @author wolray
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortBenchmark {
+    @Param({"10000", "1000000"})
+    public int size;
+
+    List<Event> list;
+    Seq<Event> seq;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        long start = 1_700_000_000_000L;
+        list = new ArraySeq<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(new Event(start + random.nextInt(86_400_000), i));
+        }
+        seq = Seq.of(list);
+    }
+
+    @Benchmark
+    public ArraySeq<Event> sortBy() {
+        return seq.sortBy(e -> e.time);
+    }
+
+    @Benchmark
+    public List<Event> sortCached() {
+        return seq.sortCached(e -> e.time).toList();
+    }
+
+    @Benchmark
+    public ArraySeq<Event> sortByLong() {
+        return seq.sortByLong(e -> e.time);
+    }
+
+    @Benchmark
+    public ArraySeq<Event> parallelSortBy() {
+        return seq.parallelSortBy(e -> e.time);
+    }
+
+    @Benchmark
+    public ArraySeq<Event> parallelSortByLong() {
+        return seq.parallelSortByLong(e -> e.time);
+    }
+
+    @Benchmark
+    public List<Event> streamSorted() {
+        return list.stream().sorted(Comparator.comparingLong(e -> e.time)).collect(Collectors.toList());
+    }
+
+    public static class Event {
+        final long time;
+        final int id;
+
+        Event(long time, int id) {
+            this.time = time;
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.wolray.seq.benchmark;
+
+import com.github.wolray.seq.StateSlot;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One fast producer updating a state read by many slow subscribers: {@link StateSlot} against a
+ * {@code synchronized} holder woken with {@code notifyAll}. Scores are producer updates per second.
+ *
+ * @author wolray
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(StateBenchmark.SIZE)
+public class StateBenchmark {
+    static final int SIZE = 1 << 16;
+
+    @Param({"1", "8", "32"})
+    public int subscribers;
+    @Param({"1000"})
+    public int work;
+
+    ExecutorService executor;
+    StateSlot<Integer> slot;
+    Monitor monitor;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        executor = Executors.newCachedThreadPool();
+        slot = new StateSlot<>();
+        monitor = new Monitor();
+        for (int i = 0; i < subscribers; i++) {
+            executor.submit(() -> slot.subscribe(t -> Blackhole.consumeCPU(work)));
+            executor.submit(() -> monitor.subscribe(work));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        slot.close();
+        monitor.close();
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void stateSlot() {
+        for (int i = 0; i < SIZE; i++) {
+            slot.publish(i);
+        }
+    }
+
+    @Benchmark
+    public void monitorState() {
+        for (int i = 0; i < SIZE; i++) {
+            monitor.publish(i);
+        }
+    }
+
+    static class Monitor {
+        Integer value;
+        boolean closed;
+
+        synchronized void publish(Integer t) {
+            value = t;
+            notifyAll();
+        }
+
+        synchronized void close() {
+            closed = true;
+            notifyAll();
+        }
+
+        void subscribe(int work) {
+            Integer last = null;
+            while (true) {
+                synchronized (this) {
+                    while (value == last && !closed) {
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                    if (closed) {
+                        return;
+                    }
+                    last = value;
+                }
+                Blackhole.consumeCPU(work);
+            }
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package com.github.wolray.seq;
 
 import java.util.ArrayList;
-import java.util.Objects;
+import java.util.List;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -72,13 +72,41 @@ public interface Async {
 
             @Override
             public void joinAll(Seq<Runnable> tasks) {
-                ArraySeq<Runnable> list = tasks.toList();
-                CountDownLatch latch = new CountDownLatch(list.size());
-                list.consume(r -> factory.newThread(() -> {
-                    r.run();
-                    latch.countDown();
-                }).start());
-                apply(latch::wait);
+                AtomicReference<Throwable> error = new AtomicReference<>(null);
+                List<Runnable> list = tasks.toList();
+                Thread[] threads = new Thread[list.size()];
+                CountDownLatch latch = new CountDownLatch(threads.length);
+                for (int i = 0; i < threads.length; i++) {
+                    Runnable r = list.get(i);
+                    threads[i] = factory.newThread(() -> {
+                        try {
+                            r.run();
+                        } catch (Throwable e) {
+                            if (error.compareAndSet(null, e)) {
+                                Seq.of(threads).consume(Thread::interrupt);
+                            }
+                        } finally {
+                            latch.countDown();
+                        }
+                    });
+                }
+                Seq.of(threads).consume(Thread::start);
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Seq.of(threads).consume(Thread::interrupt);
+                    throw new RuntimeException(e);
+                }
+                Throwable e = error.get();
+                if (e instanceof RuntimeException) {
+                    throw (RuntimeException)e;
+                }
+                if (e instanceof Error) {
+                    throw (Error)e;
+                }
+                if (e != null) {
+                    throw new RuntimeException(e);
+                }
             }
         };
     }
@@ -91,135 +119,165 @@ public interface Async {
         return seq instanceof AsyncSeq ? ((AsyncSeq<T>)seq).source : seq;
     }
 
+    static CancelToken tokenOf(Seq<?> seq) {
+        if (seq instanceof AsyncSeq) {
+            CancelToken child = ((AsyncSeq<?>)seq).token.child();
+            child.scoped = true;
+            return child;
+        }
+        return new CancelToken();
+    }
+
+    static Async virtual() {
+        return of(VirtualThreads.factory());
+    }
+
     default <T> AsyncSeq<T> toAsync(Seq<T> seq) {
-        return new AsyncSeq<T>(this, sourceOf(seq)) {
+        return toAsync(seq, tokenOf(seq));
+    }
+
+    default <T> AsyncSeq<T> toAsync(Seq<T> seq, CancelToken token) {
+        return new AsyncSeq<T>(this, sourceOf(seq), token) {
             @Override
             public void consume(Consumer<T> consumer) {
                 checkState();
-                task = submit(() -> source.consumeTillStop(t -> {
-                    if (cancelled) {
-                        Seq.stop();
+                task = submit(() -> {
+                    try {
+                        token.run(() -> {
+                            source.consumeTillStop(t -> {
+                                token.checkpoint();
+                                consumer.accept(t);
+                            });
+                            done();
+                        });
+                    } finally {
+                        if (token.scoped) {
+                            token.close();
+                        }
                     }
-                    consumer.accept(t);
-                }));
+                });
             }
         };
     }
 
     default <T> AsyncSeq<T> toChannel(Seq<T> seq) {
-        return new AsyncSeq<T>(this, sourceOf(seq)) {
+        return toChannel(1024, SpscRing.Wait.BLOCKING, seq);
+    }
+
+    default <T> AsyncSeq<T> toChannel(int capacity, SpscRing.Wait wait, Seq<T> seq) {
+        return toChannel(capacity, wait, seq, tokenOf(seq));
+    }
+
+    default <T> AsyncSeq<T> toChannel(int capacity, SpscRing.Wait wait, Seq<T> seq, CancelToken token) {
+        return new AsyncSeq<T>(this, sourceOf(seq), token) {
             @Override
             public void consume(Consumer<T> consumer) {
                 checkState();
-                HotChannel<T> channel = new HotChannel<>();
+                SpscRing<T> ring = new SpscRing<>(capacity, wait);
+                Runnable unregister = token.onCancel(ring::close);
                 task = submit(() -> {
-                    source.consumeTillStop(t -> {
-                        if (cancelled) {
-                            Seq.stop();
-                        }
-                        if (channel.isEmpty()) {
-                            channel.offer(t);
-                            channel.easyNotify();
-                        } else {
-                            consumer.accept(t);
-                        }
-                    });
-                    channel.stop = true;
-                    channel.easyNotify();
-                });
-                while (true) {
-                    while (!channel.isEmpty()) {
-                        consumer.accept(channel.poll());
+                    try {
+                        token.run(() -> source.consumeTillStop(t -> {
+                            token.checkpoint();
+                            ring.put(t);
+                        }));
+                        ring.close();
+                    } catch (Throwable e) {
+                        ring.close(e);
                     }
-                    if (channel.stop) {
-                        break;
+                });
+                try {
+                    ring.consume(consumer);
+                    done();
+                } finally {
+                    ring.close();
+                    unregister.run();
+                    if (token.scoped) {
+                        token.close();
                     }
-                    channel.easyWait();
                 }
             }
         };
     }
 
     default <T> Seq<T> toShared(int buffer, boolean delay, Seq<T> seq) {
+        return toShared(buffer, delay, seq, tokenOf(seq));
+    }
+
+    default <T> MulticastRing<T> toShared(int buffer, boolean delay, Seq<T> seq, CancelToken token) {
         ForkJoin.checkForHot(this);
         Seq<T> source = sourceOf(seq);
-        SharedArray<T> array = new SharedArray<>(buffer);
-        Runnable emit = () -> {
-            source.consume(t -> {
-                if (array.end < buffer) {
-                    array.add(t);
-                    array.end += 1;
-                } else {
-                    array.set(array.head, t);
-                    if (++array.head == buffer) {
-                        array.head = 0;
-                    }
-                    array.drop += 1;
-                }
-                array.easyNotify();
-            });
-            array.stop = true;
-            array.easyNotify();
-        };
         AtomicReference<Object> task = new AtomicReference<>(null);
-        if (!delay) {
-            task.set(submit(emit));
-        }
-        return c -> {
-            if (delay) {
-                task.getAndUpdate(o -> o != null ? o : submit(emit));
+        class Shared extends MulticastRing<T> {
+            Shared() {
+                super(buffer, Async.this);
             }
-            submit(() -> {
-                for (long i = array.drop; ; i++) {
-                    if (array.stop) {
-                        return;
-                    }
-                    if (i < array.drop) {
-                        c.accept(array.get(array.head));
-                        i = array.drop;
-                    } else {
-                        if (i - array.drop >= array.size()) {
-                            array.easyWait();
-                        }
-                        c.accept(array.get((int)((array.head + i - array.drop) % buffer)));
-                    }
+
+            void emit() {
+                try {
+                    token.run(() -> source.consume(t -> {
+                        token.checkpoint();
+                        publish(t);
+                    }));
+                } finally {
+                    close();
                 }
-            });
-        };
+            }
+
+            @Override
+            public void consume(Consumer<T> consumer) {
+                if (delay) {
+                    task.getAndUpdate(o -> o != null ? o : submit(this::emit));
+                }
+                submit(() -> token.run(() -> subscribe(consumer)));
+            }
+        }
+        Shared shared = new Shared();
+        token.onCancel(shared::cancel);
+        if (!delay) {
+            task.set(submit(shared::emit));
+        }
+        return shared;
     }
 
     default <T> Seq<T> toState(boolean delay, Seq<T> seq) {
+        return toState(delay, seq, tokenOf(seq));
+    }
+
+    default <T> StateSlot<T> toState(boolean delay, Seq<T> seq, CancelToken token) {
         ForkJoin.checkForHot(this);
         Seq<T> source = sourceOf(seq);
-        StateValue<T> value = new StateValue<>();
-        Runnable emit = () -> {
-            source.consume(t -> {
-                if (!Objects.equals(t, value.it)) {
-                    value.it = t;
-                    value.easyNotify();
-                }
-            });
-            value.stop = true;
-            value.easyNotify();
-        };
         AtomicReference<Object> task = new AtomicReference<>(null);
-        if (!delay) {
-            task.set(submit(emit));
-        }
-        return c -> {
-            if (delay) {
-                task.getAndUpdate(o -> o != null ? o : submit(emit));
+        class State extends StateSlot<T> {
+            State() {
+                super(Async.this);
             }
-            submit(() -> {
-                while (true) {
-                    value.easyWait();
-                    if (value.stop) {
-                        return;
-                    }
-                    c.accept(value.it);
+
+            void emit() {
+                try {
+                    token.run(() -> source.consume(t -> {
+                        token.checkpoint();
+                        publish(t);
+                    }));
+                } finally {
+                    close();
                 }
-            });
-        };
+            }
+
+            @Override
+            public void consume(Consumer<T> consumer) {
+                if (delay) {
+                    task.getAndUpdate(o -> o != null ? o : submit(this::emit));
+                }
+                submit(() -> token.run(() -> subscribe(consumer)));
+            }
+        }
+        State state = new State();
+        token.onCancel(state::cancel);
+        if (!delay) {
+            task.set(submit(state::emit));
+        }
+        return state;
     }
 
     interface EasyLock {
@@ -269,6 +327,10 @@ public interface Async {
         }
     }
 
+    /**
+     * @deprecated no longer used, {@link #toShared} is backed by {@link MulticastRing}
+     */
+    @Deprecated
     class SharedArray<T> extends ArrayList<T> implements EasyLock {
         int head;
         int end;
@@ -280,6 +342,10 @@ public interface Async {
         }
     }
 
+    /**
+     * @deprecated no longer used, {@link #toState} is backed by {@link StateSlot}
+     */
+    @Deprecated
     class StateValue<T> implements EasyLock {
         T it;
         boolean stop;
@@ -1,5 +1,6 @@
 package com.github.wolray.seq;
 
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -8,26 +9,69 @@ import java.util.function.Function;
  */
 public abstract class AsyncSeq<T> implements Seq<T> {
     protected Object task;
-    protected boolean cancelled;
     protected final Async async;
     protected final Seq<T> source;
+    protected final CancelToken token;
+    private final AsyncSeq<?> upstream;
+    private Runnable whenDone;
 
-    AsyncSeq(Async async, Seq<T> source) {
+    AsyncSeq(Async async, Seq<T> source, CancelToken token) {
         this.async = async;
         this.source = source;
+        this.token = token;
+        upstream = null;
+    }
+
+    AsyncSeq(AsyncSeq<?> upstream, Seq<T> source) {
+        async = upstream.async;
+        this.source = source;
+        token = upstream.token;
+        this.upstream = upstream;
     }
 
     public void cancel() {
-        cancelled = true;
-        joinConsume();
+        token.cancel();
+    }
+
+    public AsyncSeq<T> cancelAfter(long timeout, TimeUnit unit) {
+        token.cancelAfter(timeout, unit);
+        return this;
+    }
+
+    public boolean isCancelled() {
+        return token.isCancelled();
+    }
+
+    public CancelToken token() {
+        return token;
     }
 
     public void joinConsume() {
-        if (task != null) {
+        if (upstream != null) {
+            upstream.joinConsume();
+        } else if (task != null) {
             async.join(task);
         }
     }
 
+    void onDone(Runnable runnable) {
+        if (upstream != null) {
+            upstream.onDone(runnable);
+        } else {
+            Runnable last = whenDone;
+            whenDone = last == null ? runnable : () -> {
+                last.run();
+                runnable.run();
+            };
+        }
+    }
+
+    protected void done() {
+        if (whenDone != null) {
+            whenDone.run();
+        }
+    }
+
     protected void checkState() {
         if (task != null) {
             throw new IllegalStateException("AsyncSeq can only consume once");
@@ -35,7 +79,7 @@ public abstract class AsyncSeq<T> implements Seq<T> {
     }
 
     public AsyncSeq<T> onStart(Runnable runnable) {
-        return new AsyncSeq<T>(async, source) {
+        return new AsyncSeq<T>(this, source) {
             @Override
             public void consume(Consumer<T> consumer) {
                 runnable.run();
@@ -45,7 +89,7 @@ public abstract class AsyncSeq<T> implements Seq<T> {
     }
 
     public AsyncSeq<T> onCompletion(Runnable runnable) {
-        return new AsyncSeq<T>(async, source) {
+        return new AsyncSeq<T>(this, source) {
             @Override
             public void consume(Consumer<T> consumer) {
                 AsyncSeq.this.consume(consumer);
@@ -56,11 +100,28 @@ public abstract class AsyncSeq<T> implements Seq<T> {
 
     @Override
     public <E> AsyncSeq<E> map(Function<T, E> function) {
-        return new AsyncSeq<E>(async, source.map(function)) {
+        return new AsyncSeq<E>(this, source.map(function)) {
             @Override
             public void consume(Consumer<E> consumer) {
                 AsyncSeq.this.consume(t -> consumer.accept(function.apply(t)));
             }
         };
     }
+
+    @Override
+    public <E> AsyncSeq<E> mapParallel(Async workers, int window, Function<T, E> function) {
+        return new AsyncSeq<E>(this, source.mapParallel(workers, window, function)) {
+            @Override
+            public void consume(Consumer<E> consumer) {
+                ParallelMap<T, E> map = new ParallelMap<>(workers, window, function, consumer);
+                AsyncSeq.this.onDone(map::finish);
+                AsyncSeq.this.consume(map);
+            }
+        };
+    }
+
+    @Override
+    public <E> AsyncSeq<E> mapParallel(int window, Function<T, E> function) {
+        return mapParallel(async, window, function);
+    }
 }
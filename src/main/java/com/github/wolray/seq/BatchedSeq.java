@@ -1,45 +1,123 @@
 package com.github.wolray.seq;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.NoSuchElementException;
 import java.util.function.Consumer;
+import java.util.function.IntFunction;
 
 /**
+ * Append-only store behind {@link Seq#cache()} and {@link Seq#toBatched()}. Elements live in plain
+ * {@code Object[]} chunks whose capacities double, chunk {@code k} holding {@code FIRST << k}
+ * elements, so the position of any index is computed from its bits and {@link #get} is O(1). Nothing
+ * is ever copied on growth and the per-element overhead is one array slot plus the unused tail of the
+ * last chunk.
+ *
  * @author wolray
  */
 public class BatchedSeq<T> implements SizedSeq<T> {
-    private transient int batchSize = 10;
-    private transient final LinkedList<ArrayList<T>> list = new LinkedList<>();
+    static final int SHIFT = 4;
+    static final int FIRST = 1 << SHIFT;
+
+    private transient Object[][] chunks = new Object[4][];
+    private transient int count;
+    private transient Object[] cur;
+    private transient int pos;
     private transient int size;
-    private transient ArrayList<T> cur;
+
+    static int chunkOf(int index) {
+        return 31 - Integer.numberOfLeadingZeros((index >>> SHIFT) + 1);
+    }
+
+    static int startOf(int chunk) {
+        return ((1 << chunk) - 1) << SHIFT;
+    }
+
+    public void add(T t) {
+        if (cur == null || pos == cur.length) {
+            if (count == chunks.length) {
+                chunks = Arrays.copyOf(chunks, count << 1);
+            }
+            cur = new Object[FIRST << count];
+            chunks[count++] = cur;
+            pos = 0;
+        }
+        cur[pos++] = t;
+        size++;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void addAll(BatchedSeq<T> seq) {
+        for (int k = 0; k < seq.count; k++) {
+            Object[] chunk = seq.chunks[k];
+            for (int i = 0, n = seq.lengthOf(k); i < n; i++) {
+                add((T)chunk[i]);
+            }
+        }
+    }
 
     @Override
+    @SuppressWarnings("unchecked")
     public void consume(Consumer<T> consumer) {
-        list.forEach(ls -> ls.forEach(consumer));
+        StopFlag flag = StopFlag.of(consumer);
+        for (int k = 0; k < count; k++) {
+            Object[] chunk = chunks[k];
+            int n = lengthOf(k);
+            if (flag == StopFlag.NEVER) {
+                for (int i = 0; i < n; i++) {
+                    consumer.accept((T)chunk[i]);
+                }
+            } else {
+                for (int i = 0; i < n; i++) {
+                    if (flag.isStopped()) {
+                        return;
+                    }
+                    consumer.accept((T)chunk[i]);
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int k = chunkOf(index);
+        return (T)chunks[k][index - startOf(k)];
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
     }
 
     @Override
     public Iterator<T> iterator() {
         return new Iterator<T>() {
-            Iterator<ArrayList<T>> iterator = list.iterator();
-            Iterator<T> cur = Collections.emptyIterator();
+            int k;
+            int i;
+            int index;
 
             @Override
             public boolean hasNext() {
-                if (!cur.hasNext()) {
-                    if (!iterator.hasNext()) {
-                        return false;
-                    }
-                    cur = iterator.next().iterator();
-                }
-                return true;
+                return index < size;
             }
 
             @Override
+            @SuppressWarnings("unchecked")
             public T next() {
-                return cur.next();
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                Object[] chunk = chunks[k];
+                T t = (T)chunk[i];
+                index++;
+                if (++i == chunk.length) {
+                    k++;
+                    i = 0;
+                }
+                return t;
             }
         };
     }
@@ -49,26 +127,28 @@ public class BatchedSeq<T> implements SizedSeq<T> {
         return size;
     }
 
-    @Override
-    public boolean isEmpty() {
-        return size == 0;
+    public Object[] toArray() {
+        return copyTo(new Object[size]);
     }
 
-    public void add(T t) {
-        if (cur == null) {
-            cur = new ArrayList<>(batchSize);
-            list.add(cur);
-        }
-        cur.add(t);
-        size++;
-        if (cur.size() == batchSize) {
-            cur = null;
-            batchSize = Math.min(300, Math.max(batchSize, size >> 1));
-        }
+    @Override
+    public T[] toObjArray(IntFunction<T[]> initializer) {
+        return copyTo(initializer.apply(size));
     }
 
     @Override
     public String toString() {
         return toList().toString();
     }
+
+    private <A> A[] copyTo(A[] array) {
+        for (int k = 0; k < count; k++) {
+            System.arraycopy(chunks[k], 0, array, startOf(k), lengthOf(k));
+        }
+        return array;
+    }
+
+    private int lengthOf(int k) {
+        return k == count - 1 ? pos : chunks[k].length;
+    }
 }
@@ -0,0 +1,185 @@
+package com.github.wolray.seq;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Bounded replacement for {@link HotChannel}. Producers call {@link #offer} or {@link #offerAll} from
+ * any thread; {@link #consume} drains the buffer in batches and returns once the channel is
+ * {@link #close() closed} and empty, so it can be fed straight into {@code shareIn} or {@code stateIn}.
+ * What happens when the buffer is full is decided by the {@link Overflow} policy.
+ *
+ * @author wolray
+ */
+public class BoundedChannel<T> implements Seq<T>, AutoCloseable {
+    private final Object[] buffer;
+    private final Overflow overflow;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private int head;
+    private int size;
+    private long dropped;
+    private boolean closed;
+
+    public BoundedChannel(int capacity) {
+        this(capacity, Overflow.BLOCK);
+    }
+
+    public BoundedChannel(int capacity, Overflow overflow) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("non-positive capacity");
+        }
+        buffer = new Object[overflow == Overflow.CONFLATE ? 1 : capacity];
+        this.overflow = overflow;
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void consume(Consumer<T> consumer) {
+        StopFlag flag = StopFlag.of(consumer);
+        Object[] batch = new Object[buffer.length];
+        while (!flag.isStopped()) {
+            int n;
+            lock.lock();
+            try {
+                while (size == 0 && !closed) {
+                    Async.apply(notEmpty::await);
+                }
+                if (size == 0) {
+                    return;
+                }
+                n = size;
+                for (int i = 0; i < n; i++) {
+                    batch[i] = buffer[head];
+                    buffer[head] = null;
+                    head = next(head);
+                }
+                size = 0;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            for (int i = 0; i < n; i++) {
+                consumer.accept((T)batch[i]);
+                batch[i] = null;
+            }
+        }
+    }
+
+    public long dropped() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean offer(T t) {
+        lock.lock();
+        try {
+            boolean added = add(t);
+            if (added) {
+                notEmpty.signalAll();
+            }
+            return added;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int offerAll(Iterable<? extends T> ts) {
+        int count = 0;
+        lock.lock();
+        try {
+            for (T t : ts) {
+                if (overflow == Overflow.BLOCK && size == buffer.length && count > 0) {
+                    notEmpty.signalAll();
+                }
+                if (add(t)) {
+                    count++;
+                } else if (closed) {
+                    break;
+                }
+            }
+            if (count > 0) {
+                notEmpty.signalAll();
+            }
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean add(T t) {
+        if (closed) {
+            return false;
+        }
+        if (size == buffer.length) {
+            switch (overflow) {
+                case BLOCK:
+                    while (size == buffer.length && !closed) {
+                        Async.apply(notFull::await);
+                    }
+                    if (closed) {
+                        return false;
+                    }
+                    break;
+                case DROP_NEWEST:
+                    dropped++;
+                    return false;
+                default:
+                    head = next(head);
+                    size--;
+                    dropped++;
+            }
+        }
+        int tail = head + size;
+        buffer[tail < buffer.length ? tail : tail - buffer.length] = t;
+        size++;
+        return true;
+    }
+
+    private int next(int i) {
+        return ++i == buffer.length ? 0 : i;
+    }
+
+    public enum Overflow {
+        BLOCK,
+        DROP_NEWEST,
+        DROP_OLDEST,
+        CONFLATE
+    }
+}
@@ -0,0 +1,143 @@
+package com.github.wolray.seq;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.ToLongFunction;
+
+/**
+ * Keeps the {@code k} greatest elements seen so far in a min-heap, behind {@link Reducer#topK} and
+ * {@link Reducer#bottomK}: each element costs O(log k) at most and memory stays O(k). Elements are
+ * ordered either by a {@link Comparator} or by a primitive key held in a parallel {@code long[]}, so
+ * keyed heaps never box. Partial heaps built on different threads can be {@link #merge merged}.
+ *
+ * @author wolray
+ */
+public class BoundedHeap<T> {
+    private final int k;
+    private final Comparator<T> comparator;
+    private final ToLongFunction<T> keyFunction;
+    private Object[] heap;
+    private long[] keys;
+    private int size;
+
+    private BoundedHeap(int k, Comparator<T> comparator, ToLongFunction<T> keyFunction) {
+        if (k < 0) {
+            throw new IllegalArgumentException("negative k");
+        }
+        this.k = k;
+        this.comparator = comparator;
+        this.keyFunction = keyFunction;
+        int capacity = Math.min(k, 16);
+        heap = new Object[capacity];
+        keys = keyFunction != null ? new long[capacity] : null;
+    }
+
+    public static <T> BoundedHeap<T> of(int k, Comparator<T> comparator) {
+        return new BoundedHeap<>(k, comparator, null);
+    }
+
+    public static <T> BoundedHeap<T> ofKey(int k, ToLongFunction<T> keyFunction) {
+        return new BoundedHeap<>(k, null, keyFunction);
+    }
+
+    static long sortable(double d) {
+        long bits = Double.doubleToLongBits(d);
+        return bits ^ (bits >> 63 & Long.MAX_VALUE);
+    }
+
+    public void add(T t) {
+        add(t, keys != null ? keyFunction.applyAsLong(t) : 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    public BoundedHeap<T> merge(BoundedHeap<T> other) {
+        for (int i = 0; i < other.size; i++) {
+            add((T)other.heap[i], other.keys != null ? other.keys[i] : 0);
+        }
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public ArraySeq<T> toList() {
+        Object[] a = Arrays.copyOf(heap, size);
+        long[] ks = keys != null ? Arrays.copyOf(keys, size) : null;
+        int n = size;
+        Object[] res = new Object[n];
+        while (size > 0) {
+            res[--size] = heap[0];
+            swap(0, size);
+            siftDown(0);
+        }
+        heap = a;
+        keys = ks;
+        size = n;
+        return new ArraySeq<>(Arrays.asList((T[])res));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void add(T t, long key) {
+        if (size < k) {
+            if (size == heap.length) {
+                int capacity = (int)Math.min(k, (long)size << 1);
+                heap = Arrays.copyOf(heap, capacity);
+                if (keys != null) {
+                    keys = Arrays.copyOf(keys, capacity);
+                }
+            }
+            heap[size] = t;
+            if (keys != null) {
+                keys[size] = key;
+            }
+            siftUp(size++);
+        } else if (size > 0 && (keys != null ? key > keys[0] : comparator.compare(t, (T)heap[0]) > 0)) {
+            heap[0] = t;
+            if (keys != null) {
+                keys[0] = key;
+            }
+            siftDown(0);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(int i, int j) {
+        return keys != null ? Long.compare(keys[i], keys[j]) : comparator.compare((T)heap[i], (T)heap[j]);
+    }
+
+    private void siftDown(int i) {
+        for (int child; (child = (i << 1) + 1) < size; i = child) {
+            if (child + 1 < size && compare(child + 1, child) < 0) {
+                child++;
+            }
+            if (compare(child, i) >= 0) {
+                return;
+            }
+            swap(i, child);
+        }
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (compare(i, parent) >= 0) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void swap(int i, int j) {
+        Object t = heap[i];
+        heap[i] = heap[j];
+        heap[j] = t;
+        if (keys != null) {
+            long key = keys[i];
+            keys[i] = keys[j];
+            keys[j] = key;
+        }
+    }
+}
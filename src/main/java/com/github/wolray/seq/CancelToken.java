@@ -0,0 +1,157 @@
+package com.github.wolray.seq;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cancellation shared by an {@link AsyncSeq} and everything derived from it. Cancelling, either
+ * directly, through a parent token or when a deadline passes, runs the registered callbacks and
+ * interrupts the threads that are currently running work under the token via {@link #run}, so a
+ * source blocked in I/O or a wait is released as well. Pipelines call {@link #checkpoint()} between
+ * elements, which ends them through {@link Seq#stop()}. Every {@link #onCancel} returns a handle that
+ * unregisters the callback, and a {@link #child()} unregisters itself from its parent once it is
+ * cancelled or {@link #close() closed}, so long-lived tokens do not accumulate finished children.
+ *
+ * @author wolray
+ */
+public class CancelToken implements AutoCloseable {
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "seq-cancel-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final HashSet<Thread> threads = new HashSet<>();
+    private final LinkedHashSet<Runnable> callbacks = new LinkedHashSet<>();
+    private volatile boolean cancelled;
+    private ScheduledFuture<?> timer;
+    private Runnable detach;
+    boolean scoped;
+
+    public CancelToken cancelAfter(long timeout, TimeUnit unit) {
+        ScheduledFuture<?> future = TIMER.schedule(this::cancel, timeout, unit);
+        synchronized (this) {
+            if (timer != null) {
+                timer.cancel(false);
+            }
+            timer = future;
+        }
+        return this;
+    }
+
+    public void cancel() {
+        ArrayList<Runnable> list;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            threads.forEach(Thread::interrupt);
+            if (timer != null) {
+                timer.cancel(false);
+            }
+            list = new ArrayList<>(callbacks);
+            callbacks.clear();
+        }
+        list.forEach(Runnable::run);
+        detach();
+    }
+
+    public void checkpoint() {
+        if (cancelled) {
+            Seq.stop();
+        }
+    }
+
+    public CancelToken child() {
+        CancelToken child = new CancelToken();
+        Runnable detach = onCancel(child::cancel);
+        synchronized (child) {
+            child.detach = detach;
+        }
+        return child;
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (timer != null) {
+                timer.cancel(false);
+                timer = null;
+            }
+            callbacks.clear();
+        }
+        detach();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public Runnable onCancel(Runnable callback) {
+        Runnable entry = callback::run;
+        synchronized (this) {
+            if (!cancelled) {
+                callbacks.add(entry);
+                return () -> {
+                    synchronized (this) {
+                        callbacks.remove(entry);
+                    }
+                };
+            }
+        }
+        callback.run();
+        return () -> {};
+    }
+
+    public void run(Runnable runnable) {
+        Thread thread = Thread.currentThread();
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            threads.add(thread);
+        }
+        try {
+            runnable.run();
+        } catch (StopException ignore) {
+        } catch (RuntimeException e) {
+            if (!cancelled) {
+                throw e;
+            }
+        } finally {
+            synchronized (this) {
+                threads.remove(thread);
+                if (cancelled) {
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+
+    public CancelToken withTimeout(long timeout, TimeUnit unit) {
+        return child().cancelAfter(timeout, unit);
+    }
+
+    int registered() {
+        synchronized (this) {
+            return callbacks.size();
+        }
+    }
+
+    private void detach() {
+        Runnable r;
+        synchronized (this) {
+            r = detach;
+            detach = null;
+        }
+        if (r != null) {
+            r.run();
+        }
+    }
+}
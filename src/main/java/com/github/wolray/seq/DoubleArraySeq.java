@@ -0,0 +1,205 @@
+package com.github.wolray.seq;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Random-access growable {@code double} list behind {@link DoubleSeq#toArray()},
+ * {@link DoubleSeq#toBatched()} and {@link DoubleSeq#cache()}, the {@code double} counterpart of
+ * {@link IntArraySeq}. Elements sit in one {@code double[]} that grows by half when full or is presized
+ * exactly when the size is known. {@link #subList} returns a view sharing the same array; views
+ * can be read, set and sorted but not appended to.
+ *
+ * @author wolray
+ */
+public class DoubleArraySeq implements DoubleSeq {
+    private static final double[] EMPTY = new double[0];
+    private static final int MAX_SIZE = Integer.MAX_VALUE - 8;
+
+    private double[] array;
+    private final int offset;
+    private int size;
+    private final boolean view;
+
+    public DoubleArraySeq() {
+        this(10);
+    }
+
+    public DoubleArraySeq(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("negative capacity");
+        }
+        array = capacity == 0 ? EMPTY : new double[capacity];
+        offset = 0;
+        view = false;
+    }
+
+    private DoubleArraySeq(double[] array, int offset, int size, boolean view) {
+        this.array = array;
+        this.offset = offset;
+        this.size = size;
+        this.view = view;
+    }
+
+    public static DoubleArraySeq wrap(double... array) {
+        return new DoubleArraySeq(array, 0, array.length, false);
+    }
+
+    public void add(double t) {
+        if (view || size == array.length) {
+            grow(size + 1);
+        }
+        array[size++] = t;
+    }
+
+    public void addAll(DoubleArraySeq seq) {
+        int n = seq.size;
+        if (view || size + n > array.length) {
+            grow(size + n);
+        }
+        System.arraycopy(seq.array, seq.offset, array, size, n);
+        size += n;
+    }
+
+    public int binarySearch(double key) {
+        int i = Arrays.binarySearch(array, offset, offset + size, key);
+        return i >= 0 ? i - offset : i + offset;
+    }
+
+    @Override
+    public ItrSeq<Double> boxed() {
+        return () -> new Iterator<Double>() {
+            int i;
+
+            @Override
+            public boolean hasNext() {
+                return i < size;
+            }
+
+            @Override
+            public Double next() {
+                if (i >= size) {
+                    throw new NoSuchElementException();
+                }
+                return array[offset + i++];
+            }
+        };
+    }
+
+    @Override
+    public DoubleArraySeq cache() {
+        return this;
+    }
+
+    @Override
+    public void consume(DoubleConsumer consumer) {
+        StopFlag flag = StopFlag.of(consumer);
+        double[] a = array;
+        int end = offset + size;
+        if (flag == StopFlag.NEVER) {
+            for (int i = offset; i < end; i++) {
+                consumer.accept(a[i]);
+            }
+        } else {
+            for (int i = offset; i < end && !flag.isStopped(); i++) {
+                consumer.accept(a[i]);
+            }
+        }
+    }
+
+    @Override
+    public int count() {
+        return size;
+    }
+
+    public double get(int index) {
+        checkIndex(index);
+        return array[offset + index];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public DoubleArraySeq parallelSort() {
+        Arrays.parallelSort(array, offset, offset + size);
+        return this;
+    }
+
+    public double set(int index, double t) {
+        checkIndex(index);
+        double old = array[offset + index];
+        array[offset + index] = t;
+        return old;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int sizeOrDefault() {
+        return size;
+    }
+
+    public DoubleArraySeq sort() {
+        Arrays.sort(array, offset, offset + size);
+        return this;
+    }
+
+    public DoubleArraySeq subList(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("from: " + from + ", to: " + to + ", size: " + size);
+        }
+        return new DoubleArraySeq(array, offset + from, to - from, true);
+    }
+
+    @Override
+    public double[] toArray() {
+        return Arrays.copyOfRange(array, offset, offset + size);
+    }
+
+    public void trimToSize() {
+        if (!view && size < array.length) {
+            array = Arrays.copyOf(array, size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(array[offset + i]);
+        }
+        return sb.append(']').toString();
+    }
+
+    double[] release() {
+        return !view && size == array.length ? array : toArray();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private void grow(int minCapacity) {
+        if (view) {
+            throw new UnsupportedOperationException("cannot append to a subList view");
+        }
+        if (minCapacity < 0 || minCapacity > MAX_SIZE) {
+            throw new OutOfMemoryError("DoubleArraySeq too large");
+        }
+        int capacity = array.length + (array.length >> 1);
+        if (capacity < minCapacity || capacity > MAX_SIZE) {
+            capacity = Math.max(minCapacity, Math.min(capacity, MAX_SIZE));
+        }
+        array = Arrays.copyOf(array, Math.max(capacity, 10));
+    }
+}
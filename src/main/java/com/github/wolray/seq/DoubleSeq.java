@@ -0,0 +1,579 @@
+package com.github.wolray.seq;
+
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * @author wolray
+ */
+public interface DoubleSeq extends Seq0<DoubleConsumer> {
+    DoubleSeq empty = c -> {};
+    DoubleConsumer nothing = t -> {};
+
+    static DoubleSeq gen(DoubleSupplier supplier) {
+        return c -> {
+            StopFlag flag = StopFlag.of(c);
+            while (!flag.isStopped()) {
+                c.accept(supplier.getAsDouble());
+            }
+        };
+    }
+
+    static DoubleSeq gen(double seed, DoubleUnaryOperator operator) {
+        return c -> {
+            StopFlag flag = StopFlag.of(c);
+            double t = seed;
+            c.accept(t);
+            while (!flag.isStopped()) {
+                c.accept(t = operator.applyAsDouble(t));
+            }
+        };
+    }
+
+    static DoubleSeq gen(double seed1, double seed2, DoubleBinaryOperator operator) {
+        return c -> {
+            StopFlag flag = StopFlag.of(c);
+            double t1 = seed1, t2 = seed2;
+            c.accept(t1);
+            if (flag.isStopped()) {
+                return;
+            }
+            c.accept(t2);
+            while (!flag.isStopped()) {
+                c.accept(t2 = operator.applyAsDouble(t1, t1 = t2));
+            }
+        };
+    }
+
+    static DoubleSeq of(double... ts) {
+        return c -> {
+            StopFlag flag = StopFlag.of(c);
+            for (int i = 0; i < ts.length && !flag.isStopped(); i++) {
+                c.accept(ts[i]);
+            }
+        };
+    }
+
+    static DoubleSeq range(double start, double stop, double step) {
+        if (step == 0) {
+            throw new IllegalArgumentException("step is 0");
+        }
+        return c -> {
+            StopFlag flag = StopFlag.of(c);
+            double t = start;
+            for (long i = 1; (step > 0 ? t < stop : t > stop) && !flag.isStopped(); i++) {
+                c.accept(t);
+                t = start + i * step;
+            }
+        };
+    }
+
+    static DoubleSeq repeat(int n, double value) {
+        return c -> {
+            StopFlag flag = StopFlag.of(c);
+            for (int i = 0; i < n && !flag.isStopped(); i++) {
+                c.accept(value);
+            }
+        };
+    }
+
+    default boolean all(DoublePredicate predicate) {
+        return !find(predicate.negate()).isPresent();
+    }
+
+    default boolean any(DoublePredicate predicate) {
+        return find(predicate).isPresent();
+    }
+
+    default boolean anyNot(DoublePredicate predicate) {
+        return any(predicate.negate());
+    }
+
+    default DoubleSeq append(double t) {
+        return c -> {
+            consume(c);
+            c.accept(t);
+        };
+    }
+
+    default DoubleSeq append(double... t) {
+        return c -> {
+            consume(c);
+            for (double x : t) {
+                c.accept(x);
+            }
+        };
+    }
+
+    default DoubleSeq appendWith(DoubleSeq seq) {
+        return c -> {
+            consume(c);
+            seq.consume(c);
+        };
+    }
+
+    default double average() {
+        return average(null);
+    }
+
+    default double average(DoubleUnaryOperator weightFunction) {
+        double[] a = {0, 0};
+        consume(t -> {
+            if (weightFunction != null) {
+                double w = weightFunction.applyAsDouble(t);
+                a[0] += t * w;
+                a[1] += w;
+            } else {
+                a[0] += t;
+                a[1] += 1;
+            }
+        });
+        return a[1] != 0 ? a[0] / a[1] : 0;
+    }
+
+    default Seq<Double> boxed() {
+        return c -> consume(StopFlag.wrapDouble(c, c::accept));
+    }
+
+    default DoubleArraySeq cache() {
+        return toBatched();
+    }
+
+    default Seq<double[]> chunked(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("non-positive size");
+        }
+        return c -> {
+            IntPair<double[]> p = reduce(new IntPair<>(0, new double[size]), (a, t) -> {
+                a.it[a.intVal++] = t;
+                if (a.intVal == size) {
+                    c.accept(a.it);
+                    a.it = new double[size];
+                    a.intVal = 0;
+                }
+            });
+            if (p.intVal > 0) {
+                c.accept(Arrays.copyOf(p.it, p.intVal));
+            }
+        };
+    }
+
+    default DoubleSeq circle() {
+        return c -> {
+            while (true) {
+                consume(c);
+            }
+        };
+    }
+
+    default void consume(DoubleConsumer consumer, int n, DoubleConsumer substitute) {
+        if (n > 0) {
+            int[] a = {n - 1};
+            consume(t -> {
+                if (a[0] < 0) {
+                    consumer.accept(t);
+                } else {
+                    a[0]--;
+                    substitute.accept(t);
+                }
+            });
+        } else {
+            consume(consumer);
+        }
+    }
+
+    default void consumeIndexed(IndexDoubleConsumer consumer) {
+        int[] a = {0};
+        consume(t -> consumer.accept(a[0]++, t));
+    }
+
+    default void consumeIndexedTillStop(IndexDoubleConsumer consumer) {
+        int[] a = {0};
+        consumeTillStop(t -> consumer.accept(a[0]++, t));
+    }
+
+    default int count() {
+        return reduce(new int[1], (a, t) -> a[0]++)[0];
+    }
+
+    default int count(DoublePredicate predicate) {
+        return reduce(new int[1], (a, t) -> {
+            if (predicate.test(t)) {
+                a[0]++;
+            }
+        })[0];
+    }
+
+    default int countNot(DoublePredicate predicate) {
+        return count(predicate.negate());
+    }
+
+    default DoubleSeq distinct() {
+        return distinctBy(i -> i);
+    }
+
+    default <E> DoubleSeq distinctBy(DoubleFunction<E> function) {
+        return c -> reduce(new HashSet<>(), (set, t) -> {
+            if (set.add(function.apply(t))) {
+                c.accept(t);
+            }
+        });
+    }
+
+    default DoubleSeq drop(int n) {
+        return n <= 0 ? this : partial(n, nothing);
+    }
+
+    default DoubleSeq dropWhile(DoublePredicate predicate) {
+        return c -> foldBoolean(false, (b, t) -> {
+            if (b || !predicate.test(t)) {
+                c.accept(t);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    default DoubleSeq duplicateAll(int times) {
+        return c -> {
+            for (int i = 0; i < times; i++) {
+                consume(c);
+            }
+        };
+    }
+
+    default DoubleSeq duplicateEach(int times) {
+        return c -> consume(t -> {
+            for (int i = 0; i < times; i++) {
+                c.accept(t);
+            }
+        });
+    }
+
+    default DoubleSeq duplicateIf(int times, DoublePredicate predicate) {
+        return c -> consume(t -> {
+            if (predicate.test(t)) {
+                for (int i = 0; i < times; i++) {
+                    c.accept(t);
+                }
+            } else {
+                c.accept(t);
+            }
+        });
+    }
+
+    default DoubleSeq filter(DoublePredicate predicate) {
+        return c -> consume(StopFlag.wrapDouble(c, t -> {
+            if (predicate.test(t)) {
+                c.accept(t);
+            }
+        }));
+    }
+
+    default DoubleSeq filter(int n, DoublePredicate predicate) {
+        return c -> consume(c, n, t -> {
+            if (predicate.test(t)) {
+                c.accept(t);
+            }
+        });
+    }
+
+    default DoubleSeq filterIndexed(IndexDoublePredicate predicate) {
+        return c -> consumeIndexed((i, t) -> {
+            if (predicate.test(i, t)) {
+                c.accept(t);
+            }
+        });
+    }
+
+    default DoubleSeq filterNot(DoublePredicate predicate) {
+        return filter(predicate.negate());
+    }
+
+    default OptionalDouble find(DoublePredicate predicate) {
+        Mutable<Double> m = new Mutable<>(null);
+        consumeTillStop(new StopFlag.ForDouble(null) {
+            @Override
+            protected void onAccept(double t) {
+                if (predicate.test(t)) {
+                    m.set(t);
+                    stop();
+                }
+            }
+        });
+        return m.isSet ? OptionalDouble.of(m.it) : OptionalDouble.empty();
+    }
+
+    default OptionalDouble findNot(DoublePredicate predicate) {
+        return find(predicate.negate());
+    }
+
+    default OptionalDouble first() {
+        return find(t -> true);
+    }
+
+    default DoubleSeq flatMap(DoubleFunction<DoubleSeq> function) {
+        return c -> consume(t -> function.apply(t).consume(c));
+    }
+
+    default <E> E fold(E init, ObjDoubleToObj<E> function) {
+        Mutable<E> m = new Mutable<>(init);
+        consume(t -> m.it = function.apply(m.it, t));
+        return m.it;
+    }
+
+    default int foldInt(int init, IntDoubleToInt function) {
+        int[] a = {init};
+        consume(t -> a[0] = function.apply(a[0], t));
+        return a[0];
+    }
+
+    default double foldDouble(double init, DoubleBinaryOperator function) {
+        double[] a = {init};
+        consume(t -> a[0] = function.applyAsDouble(a[0], t));
+        return a[0];
+    }
+
+    default long foldLong(long init, LongDoubleToLong function) {
+        long[] a = {init};
+        consume(t -> a[0] = function.apply(a[0], t));
+        return a[0];
+    }
+
+    default boolean foldBoolean(boolean init, BoolDoubleToBool function) {
+        boolean[] a = {init};
+        consume(t -> a[0] = function.apply(a[0], t));
+        return a[0];
+    }
+
+    default OptionalDouble last() {
+        Mutable<Double> m = new Mutable<>(null);
+        consume(m::set);
+        return m.isSet ? OptionalDouble.of(m.it) : OptionalDouble.empty();
+    }
+
+    default OptionalDouble last(DoublePredicate predicate) {
+        return filter(predicate).last();
+    }
+
+    default OptionalDouble lastNot(DoublePredicate predicate) {
+        return last(predicate.negate());
+    }
+
+    default DoubleSeq map(DoubleUnaryOperator function) {
+        return c -> consume(StopFlag.wrapDouble(c, t -> c.accept(function.applyAsDouble(t))));
+    }
+
+    default DoubleSeq mapIndexed(IndexDoubleToDouble function) {
+        return c -> consumeIndexed((i, t) -> c.accept(function.apply(i, t)));
+    }
+
+    default IntSeq mapToInt(DoubleToIntFunction function) {
+        return c -> consume(StopFlag.wrapDouble(c, t -> c.accept(function.applyAsInt(t))));
+    }
+
+    default LongSeq mapToLong(DoubleToLongFunction function) {
+        return c -> consume(StopFlag.wrapDouble(c, t -> c.accept(function.applyAsLong(t))));
+    }
+
+    default <E> Seq<E> mapToObj(DoubleFunction<E> function) {
+        return c -> consume(StopFlag.wrapDouble(c, t -> c.accept(function.apply(t))));
+    }
+
+    default <E> Seq<E> mapToObj(DoubleFunction<E> function, int n, DoubleFunction<E> substitute) {
+        return n <= 0 ? mapToObj(function) : c -> {
+            int[] a = {n - 1};
+            consume(t -> {
+                if (a[0] < 0) {
+                    c.accept(function.apply(t));
+                } else {
+                    a[0]--;
+                    c.accept(substitute.apply(t));
+                }
+            });
+        };
+    }
+
+    default Double max() {
+        return fold(null, (f, t) -> f == null || f < t ? t : f);
+    }
+
+    default <V extends Comparable<V>> DoublePair<V> max(DoubleFunction<V> function) {
+        return reduce(new DoublePair<>(0, null), (p, t) -> {
+            V v = function.apply(t);
+            if (p.it == null || p.it.compareTo(v) < 0) {
+                p.doubleVal = t;
+                p.it = v;
+            }
+        });
+    }
+
+    default Double min() {
+        return fold(null, (f, t) -> f == null || f > t ? t : f);
+    }
+
+    default <V extends Comparable<V>> DoublePair<V> min(DoubleFunction<V> function) {
+        return reduce(new DoublePair<>(0, null), (p, t) -> {
+            V v = function.apply(t);
+            if (p.it == null || p.it.compareTo(v) > 0) {
+                p.doubleVal = t;
+                p.it = v;
+            }
+        });
+    }
+
+    default boolean none(DoublePredicate predicate) {
+        return !find(predicate).isPresent();
+    }
+
+    default DoubleSeq onEach(DoubleConsumer consumer) {
+        return c -> consume(StopFlag.wrapDouble(c, consumer.andThen(c)));
+    }
+
+    default DoubleSeq onEach(int n, DoubleConsumer consumer) {
+        return c -> consume(c, n, consumer.andThen(c));
+    }
+
+    default DoubleSeq onEachIndexed(IndexDoubleConsumer consumer) {
+        return c -> consumeIndexed((i, t) -> {
+            consumer.accept(i, t);
+            c.accept(t);
+        });
+    }
+
+    default DoubleSeq partial(int n, DoubleConsumer substitute) {
+        return c -> consume(c, n, substitute);
+    }
+
+    default <E> E reduce(E des, ObjDoubleConsumer<E> consumer) {
+        consume(t -> consumer.accept(des, t));
+        return des;
+    }
+
+    default DoubleSeq replace(int n, DoubleUnaryOperator operator) {
+        return c -> consume(c, n, t -> c.accept(operator.applyAsDouble(t)));
+    }
+
+    default DoubleSeq runningFold(double init, DoubleBinaryOperator function) {
+        return c -> foldDouble(init, (acc, t) -> {
+            acc = function.applyAsDouble(acc, t);
+            c.accept(acc);
+            return acc;
+        });
+    }
+
+    default int sizeOrDefault() {
+        return 10;
+    }
+
+    default double sum() {
+        return reduce(new double[1], (a, t) -> a[0] += t)[0];
+    }
+
+    default double sum(DoubleUnaryOperator function) {
+        return reduce(new double[1], (a, t) -> a[0] += function.applyAsDouble(t))[0];
+    }
+
+    default DoubleSeq take(int n) {
+        return n <= 0 ? empty : c -> consumeTillStop(new StopFlag.ForDouble(c) {
+            int i = n;
+
+            @Override
+            protected void onAccept(double t) {
+                c.accept(t);
+                if (--i == 0) {
+                    stop();
+                }
+            }
+        });
+    }
+
+    default DoubleSeq takeWhile(DoublePredicate predicate) {
+        return c -> consumeTillStop(new StopFlag.ForDouble(c) {
+            @Override
+            protected void onAccept(double t) {
+                if (predicate.test(t)) {
+                    c.accept(t);
+                } else {
+                    stop();
+                }
+            }
+        });
+    }
+
+    default double[] toArray() {
+        return toBatched().release();
+    }
+
+    default DoubleArraySeq toBatched() {
+        return reduce(new DoubleArraySeq(sizeOrDefault()), DoubleArraySeq::add);
+    }
+
+    default OffHeapSeq.OfDouble toOffHeap() {
+        return new OffHeapSeq.OfDouble().addAll(this);
+    }
+
+    default Seq<double[]> windowed(int size, int step, boolean allowPartial) {
+        if (size <= 0 || step <= 0) {
+            throw new IllegalArgumentException("non-positive size or step");
+        }
+        return c -> {
+            Queue<IntPair<double[]>> queue = new LinkedList<>();
+            foldInt(0, (left, t) -> {
+                if (left == 0) {
+                    left = step;
+                    queue.offer(new IntPair<>(0, new double[size]));
+                }
+                queue.forEach(sub -> sub.it[sub.intVal++] = t);
+                IntPair<double[]> first = queue.peek();
+                if (first != null && first.intVal == size) {
+                    queue.poll();
+                    c.accept(first.it);
+                }
+                return left - 1;
+            });
+            if (allowPartial) {
+                queue.forEach(p -> c.accept(Arrays.copyOf(p.it, p.intVal)));
+            }
+            queue.clear();
+        };
+    }
+
+    interface ObjDoubleConsumer<E> {
+        void accept(E e, double t);
+    }
+
+    interface ObjDoubleToObj<E> {
+        E apply(E e, double t);
+    }
+
+    interface IntDoubleToInt {
+        int apply(int acc, double t);
+    }
+
+    interface LongDoubleToLong {
+        long apply(long acc, double t);
+    }
+
+    interface BoolDoubleToBool {
+        boolean apply(boolean acc, double t);
+    }
+
+    interface IndexDoubleConsumer {
+        void accept(int i, double t);
+    }
+
+    interface IndexDoublePredicate {
+        boolean test(int i, double t);
+    }
+
+    interface IndexDoubleToDouble {
+        double apply(int i, double t);
+    }
+
+    /**
+     * @deprecated use {@link DoubleArraySeq}, which {@link #toBatched()} returns
+     */
+    @Deprecated
+    class Batched extends DoubleArraySeq {}
+}
@@ -0,0 +1,200 @@
+package com.github.wolray.seq;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * External merge sort behind {@link Seq#sortExternal}. Each consumption reads the source into runs of
+ * at most {@code runSize} elements, sorts every run in memory and writes it to a temp file through the
+ * {@link Serializer}. Runs are then merged {@code fanIn} at a time until one merge pass is left, which
+ * streams straight into the consumer. Ties keep their input order, and the temp files are deleted
+ * when the consumption ends. A source that fits in one run never touches the disk.
+ *
+ * @author wolray
+ */
+public class ExternalSort<T> implements Seq<T> {
+    static final int RUN_SIZE = 1 << 16;
+    static final int FAN_IN = 64;
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private final Seq<T> source;
+    private final Comparator<T> comparator;
+    private final Serializer<T> serializer;
+    private final int runSize;
+    private final int fanIn;
+
+    @SuppressWarnings("unchecked")
+    public ExternalSort(Seq<T> source, Comparator<T> comparator, Serializer<T> serializer, int runSize, int fanIn) {
+        if (runSize <= 0 || fanIn < 2) {
+            throw new IllegalArgumentException("non-positive runSize or fanIn less than 2");
+        }
+        this.source = source;
+        this.comparator = comparator != null ? comparator : (Comparator<T>)Comparator.naturalOrder();
+        this.serializer = serializer;
+        this.runSize = runSize;
+        this.fanIn = fanIn;
+    }
+
+    @Override
+    public void consume(Consumer<T> consumer) {
+        List<Run> runs = new ArrayList<>();
+        List<Run> created = new ArrayList<>();
+        try {
+            ArrayList<T> buffer = new ArrayList<>();
+            source.consume(t -> {
+                buffer.add(t);
+                if (buffer.size() == runSize) {
+                    runs.add(write(buffer, created));
+                    buffer.clear();
+                }
+            });
+            buffer.sort(comparator);
+            if (runs.isEmpty()) {
+                StopFlag flag = StopFlag.of(consumer);
+                for (int i = 0; i < buffer.size() && !flag.isStopped(); i++) {
+                    consumer.accept(buffer.get(i));
+                }
+                return;
+            }
+            if (!buffer.isEmpty()) {
+                runs.add(write(buffer, created));
+            }
+            buffer.clear();
+            buffer.trimToSize();
+            List<Run> current = runs;
+            while (current.size() > fanIn) {
+                List<Run> next = new ArrayList<>();
+                for (int i = 0; i < current.size(); i += fanIn) {
+                    List<Run> group = current.subList(i, Math.min(i + fanIn, current.size()));
+                    next.add(group.size() == 1 ? group.get(0) : mergeToRun(group, created));
+                }
+                current = next;
+            }
+            merge(current, consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            for (Run run : created) {
+                try {
+                    Files.deleteIfExists(run.path);
+                } catch (IOException ignore) {
+                }
+            }
+        }
+    }
+
+    private void merge(List<Run> runs, Consumer<T> consumer) throws IOException {
+        PriorityQueue<Head> queue = new PriorityQueue<>(runs.size());
+        List<DataInputStream> streams = new ArrayList<>(runs.size());
+        try {
+            for (int i = 0; i < runs.size(); i++) {
+                Run run = runs.get(i);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run.path), BUFFER_SIZE));
+                streams.add(in);
+                Head head = new Head(i, in, run.count);
+                if (head.advance()) {
+                    queue.add(head);
+                }
+            }
+            StopFlag flag = StopFlag.of(consumer);
+            while (!queue.isEmpty() && !flag.isStopped()) {
+                Head head = queue.poll();
+                consumer.accept(head.value);
+                if (head.advance()) {
+                    queue.add(head);
+                }
+            }
+        } finally {
+            for (DataInputStream in : streams) {
+                in.close();
+            }
+        }
+    }
+
+    private Run mergeToRun(List<Run> group, List<Run> created) throws IOException {
+        Run run = newRun(created);
+        try (DataOutputStream out = open(run)) {
+            merge(group, t -> {
+                try {
+                    serializer.write(out, t);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                run.count++;
+            });
+        }
+        for (Run r : group) {
+            Files.deleteIfExists(r.path);
+        }
+        return run;
+    }
+
+    private Run newRun(List<Run> created) throws IOException {
+        Run run = new Run(Files.createTempFile("seq-sort-", ".bin"));
+        created.add(run);
+        return run;
+    }
+
+    private DataOutputStream open(Run run) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run.path), BUFFER_SIZE));
+    }
+
+    private Run write(ArrayList<T> buffer, List<Run> created) {
+        buffer.sort(comparator);
+        try {
+            Run run = newRun(created);
+            try (DataOutputStream out = open(run)) {
+                for (T t : buffer) {
+                    serializer.write(out, t);
+                }
+            }
+            run.count = buffer.size();
+            return run;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static class Run {
+        final Path path;
+        long count;
+
+        Run(Path path) {
+            this.path = path;
+        }
+    }
+
+    class Head implements Comparable<Head> {
+        final int run;
+        final DataInputStream in;
+        long left;
+        T value;
+
+        Head(int run, DataInputStream in, long left) {
+            this.run = run;
+            this.in = in;
+            this.left = left;
+        }
+
+        boolean advance() throws IOException {
+            if (left == 0) {
+                return false;
+            }
+            left--;
+            value = serializer.read(in);
+            return true;
+        }
+
+        @Override
+        public int compareTo(Head o) {
+            int c = comparator.compare(value, o.value);
+            return c != 0 ? c : Integer.compare(run, o.run);
+        }
+    }
+}
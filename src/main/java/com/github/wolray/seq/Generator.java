@@ -0,0 +1,180 @@
+package com.github.wolray.seq;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pull iterator over a push {@link Seq}, behind {@link Seq#asIterable()}. The source starts on its
+ * own thread at the first {@link #hasNext()} and hands elements over in small chunks through a
+ * bounded queue, so memory stays constant even for infinite sources. A chunk is handed over early
+ * whenever the reader is waiting, which keeps slow sources responsive. {@link #close()} cancels the
+ * source, interrupting it if it is blocked. The producer only holds the iterator weakly and checks
+ * it whenever the queue stays full for {@link #RECLAIM_MILLIS}, so an iterator abandoned without
+ * being closed releases its thread once it is garbage collected. In-memory seqs such as
+ * {@link ItrSeq}s and the boxed primitive array seqs iterate natively and never reach this class.
+ *
+ * @author wolray
+ */
+public class Generator<T> extends PickItr<T> implements AutoCloseable {
+    static final int BATCH_SIZE = 64;
+    static final int BUFFER = 2;
+    static final long RECLAIM_MILLIS = 100;
+    private static final Object[] EMPTY = new Object[0];
+    private static final Object[] END = new Object[0];
+    private static final Async DAEMON = Async.of(r -> {
+        Thread thread = Executors.defaultThreadFactory().newThread(r);
+        thread.setName("seq-generator-" + thread.getId());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Producer<T> producer;
+    private final Async async;
+    private Object[] chunk = EMPTY;
+    private int index;
+    private boolean started;
+
+    public Generator(Seq<T> source) {
+        this(source, defaultAsync(), BATCH_SIZE, BUFFER);
+    }
+
+    public Generator(Seq<T> source, Async async, int batchSize, int buffer) {
+        if (batchSize <= 0 || buffer <= 0) {
+            throw new IllegalArgumentException("non-positive batchSize or buffer");
+        }
+        producer = new Producer<>(this, source, batchSize, buffer);
+        this.async = async;
+    }
+
+    public static Async defaultAsync() {
+        return VirtualThreads.isSupported() ? Async.virtual() : DAEMON;
+    }
+
+    @Override
+    public void close() {
+        producer.token.cancel();
+        producer.queue.clear();
+        chunk = END;
+        index = 0;
+    }
+
+    public boolean isClosed() {
+        return producer.token.isCancelled();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T pick() {
+        if (!started) {
+            started = true;
+            async.submit(producer);
+        }
+        if (index == chunk.length) {
+            if (chunk == END || producer.token.isCancelled()) {
+                return end();
+            }
+            chunk = take();
+            index = 0;
+            if (chunk == END) {
+                rethrow();
+                return end();
+            }
+        }
+        Object o = chunk[index];
+        chunk[index++] = null;
+        return (T)o;
+    }
+
+    private void rethrow() {
+        Throwable e = producer.error;
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException)e;
+        }
+        if (e instanceof Error) {
+            throw (Error)e;
+        }
+    }
+
+    private Object[] take() {
+        Object[] a = producer.queue.poll();
+        if (a == null) {
+            producer.waiting = true;
+            try {
+                a = producer.queue.take();
+            } catch (InterruptedException e) {
+                close();
+                throw new RuntimeException(e);
+            } finally {
+                producer.waiting = false;
+            }
+        }
+        return a;
+    }
+
+    static class Producer<T> implements Runnable {
+        final WeakReference<Generator<T>> owner;
+        final Seq<T> source;
+        final int batchSize;
+        final ArrayBlockingQueue<Object[]> queue;
+        final CancelToken token = new CancelToken();
+        volatile boolean waiting;
+        volatile Throwable error;
+        Object[] pending;
+        int pendingSize;
+
+        Producer(Generator<T> owner, Seq<T> source, int batchSize, int buffer) {
+            this.owner = new WeakReference<>(owner);
+            this.source = source;
+            this.batchSize = batchSize;
+            queue = new ArrayBlockingQueue<>(buffer);
+        }
+
+        @Override
+        public void run() {
+            token.run(() -> {
+                try {
+                    source.consumeTillStop(t -> {
+                        token.checkpoint();
+                        if (pending == null) {
+                            pending = new Object[batchSize];
+                        }
+                        pending[pendingSize++] = t;
+                        if (pendingSize == batchSize || waiting) {
+                            flush();
+                        }
+                    });
+                    flush();
+                } catch (RuntimeException | Error e) {
+                    if (token.isCancelled()) {
+                        return;
+                    }
+                    error = e;
+                }
+                put(END);
+            });
+        }
+
+        private void flush() {
+            if (pendingSize > 0) {
+                Object[] a = pendingSize == batchSize ? pending : Arrays.copyOf(pending, pendingSize);
+                pending = null;
+                pendingSize = 0;
+                put(a);
+            }
+        }
+
+        private void put(Object[] a) {
+            Async.apply(() -> {
+                while (!queue.offer(a, RECLAIM_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (owner.get() == null) {
+                        token.cancel();
+                    }
+                    token.checkpoint();
+                }
+            });
+        }
+    }
+}
@@ -7,7 +7,12 @@ import java.util.function.Consumer;
  * @author wolray
  */
 public class HotChannel<T> extends ConcurrentLinkedQueue<T> implements Seq<T>, Async.EasyLock {
-    public boolean stop;
+    public volatile boolean stop;
+
+    public void close() {
+        stop = true;
+        easyNotify();
+    }
 
     @Override
     public void consume(Consumer<T> consumer) {
@@ -15,7 +20,14 @@ public class HotChannel<T> extends ConcurrentLinkedQueue<T> implements Seq<T>, A
             while (!isEmpty()) {
                 consumer.accept(poll());
             }
-            easyWait();
+            synchronized (this) {
+                if (isEmpty()) {
+                    if (stop) {
+                        return;
+                    }
+                    Async.apply(this::wait);
+                }
+            }
         }
     }
 }
@@ -83,51 +83,62 @@ public interface IOChain<T> {
     }
 
     default <E> Seq<E> toSeq(Function<T, E> provider) {
-        return c -> use(t -> {
-            E e;
-            while ((e = provider.apply(t)) != null) {
-                c.accept(e);
-            }
-        });
+        return c -> {
+            StopFlag flag = StopFlag.of(c);
+            use(t -> {
+                E e;
+                while (!flag.isStopped() && (e = provider.apply(t)) != null) {
+                    c.accept(e);
+                }
+            });
+        };
     }
 
     default <E> Seq<E> toSeq(long limit, Function<T, E> provider) {
-        return c -> use(t -> {
-            for (long i = 0; i < limit; i++) {
-                c.accept(provider.apply(t));
-            }
-        });
+        return c -> {
+            StopFlag flag = StopFlag.of(c);
+            use(t -> {
+                for (long i = 0; i < limit && !flag.isStopped(); i++) {
+                    c.accept(provider.apply(t));
+                }
+            });
+        };
     }
 
     default <E> Seq<E> toSeq(Function<T, E> provider, int skip) {
-        return c -> use(t -> {
-            E e;
-            for (int i = 0; i < skip; i++) {
-                e = provider.apply(t);
-                if (e == null) {
-                    return;
+        return c -> {
+            StopFlag flag = StopFlag.of(c);
+            use(t -> {
+                E e;
+                for (int i = 0; i < skip; i++) {
+                    e = provider.apply(t);
+                    if (e == null) {
+                        return;
+                    }
                 }
-            }
-            while ((e = provider.apply(t)) != null) {
-                c.accept(e);
-            }
-        });
+                while (!flag.isStopped() && (e = provider.apply(t)) != null) {
+                    c.accept(e);
+                }
+            });
+        };
     }
 
     default <E> Seq<E> toSeq(Function<T, E> provider, int n, UnaryOperator<E> replace) {
-        return c -> use(t -> {
-            E e;
-            for (int i = 0; i < n; i++) {
-                e = provider.apply(t);
-                if (e == null) {
-                    return;
+        return c -> {
+            StopFlag flag = StopFlag.of(c);
+            use(t -> {
+                E e;
+                for (int i = 0; i < n; i++) {
+                    if (flag.isStopped() || (e = provider.apply(t)) == null) {
+                        return;
+                    }
+                    c.accept(replace.apply(e));
                 }
-                c.accept(replace.apply(e));
-            }
-            while ((e = provider.apply(t)) != null) {
-                c.accept(e);
-            }
-        });
+                while (!flag.isStopped() && (e = provider.apply(t)) != null) {
+                    c.accept(e);
+                }
+            });
+        };
     }
 
     default void use(Consumer<T> consumer) {
@@ -0,0 +1,204 @@
+package com.github.wolray.seq;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/**
+ * Random-access growable {@code int} list behind {@link IntSeq#toArray()}, {@link IntSeq#toBatched()}
+ * and {@link IntSeq#cache()}. Elements sit in one {@code int[]} that grows by half when full or is
+ * presized exactly when the size is known. {@link #subList} returns a view sharing the same array;
+ * views can be read, set and sorted but not appended to.
+ *
+ * @author wolray
+ */
+public class IntArraySeq implements IntSeq {
+    private static final int[] EMPTY = new int[0];
+    private static final int MAX_SIZE = Integer.MAX_VALUE - 8;
+
+    private int[] array;
+    private final int offset;
+    private int size;
+    private final boolean view;
+
+    public IntArraySeq() {
+        this(10);
+    }
+
+    public IntArraySeq(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("negative capacity");
+        }
+        array = capacity == 0 ? EMPTY : new int[capacity];
+        offset = 0;
+        view = false;
+    }
+
+    private IntArraySeq(int[] array, int offset, int size, boolean view) {
+        this.array = array;
+        this.offset = offset;
+        this.size = size;
+        this.view = view;
+    }
+
+    public static IntArraySeq wrap(int... array) {
+        return new IntArraySeq(array, 0, array.length, false);
+    }
+
+    public void add(int t) {
+        if (view || size == array.length) {
+            grow(size + 1);
+        }
+        array[size++] = t;
+    }
+
+    public void addAll(IntArraySeq seq) {
+        int n = seq.size;
+        if (view || size + n > array.length) {
+            grow(size + n);
+        }
+        System.arraycopy(seq.array, seq.offset, array, size, n);
+        size += n;
+    }
+
+    public int binarySearch(int key) {
+        int i = Arrays.binarySearch(array, offset, offset + size, key);
+        return i >= 0 ? i - offset : i + offset;
+    }
+
+    @Override
+    public ItrSeq<Integer> boxed() {
+        return () -> new Iterator<Integer>() {
+            int i;
+
+            @Override
+            public boolean hasNext() {
+                return i < size;
+            }
+
+            @Override
+            public Integer next() {
+                if (i >= size) {
+                    throw new NoSuchElementException();
+                }
+                return array[offset + i++];
+            }
+        };
+    }
+
+    @Override
+    public IntArraySeq cache() {
+        return this;
+    }
+
+    @Override
+    public void consume(IntConsumer consumer) {
+        StopFlag flag = StopFlag.of(consumer);
+        int[] a = array;
+        int end = offset + size;
+        if (flag == StopFlag.NEVER) {
+            for (int i = offset; i < end; i++) {
+                consumer.accept(a[i]);
+            }
+        } else {
+            for (int i = offset; i < end && !flag.isStopped(); i++) {
+                consumer.accept(a[i]);
+            }
+        }
+    }
+
+    @Override
+    public int count() {
+        return size;
+    }
+
+    public int get(int index) {
+        checkIndex(index);
+        return array[offset + index];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public IntArraySeq parallelSort() {
+        Arrays.parallelSort(array, offset, offset + size);
+        return this;
+    }
+
+    public int set(int index, int t) {
+        checkIndex(index);
+        int old = array[offset + index];
+        array[offset + index] = t;
+        return old;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int sizeOrDefault() {
+        return size;
+    }
+
+    public IntArraySeq sort() {
+        Arrays.sort(array, offset, offset + size);
+        return this;
+    }
+
+    public IntArraySeq subList(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("from: " + from + ", to: " + to + ", size: " + size);
+        }
+        return new IntArraySeq(array, offset + from, to - from, true);
+    }
+
+    @Override
+    public int[] toArray() {
+        return Arrays.copyOfRange(array, offset, offset + size);
+    }
+
+    public void trimToSize() {
+        if (!view && size < array.length) {
+            array = Arrays.copyOf(array, size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(array[offset + i]);
+        }
+        return sb.append(']').toString();
+    }
+
+    int[] release() {
+        return !view && size == array.length ? array : toArray();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private void grow(int minCapacity) {
+        if (view) {
+            throw new UnsupportedOperationException("cannot append to a subList view");
+        }
+        if (minCapacity < 0 || minCapacity > MAX_SIZE) {
+            throw new OutOfMemoryError("IntArraySeq too large");
+        }
+        int capacity = array.length + (array.length >> 1);
+        if (capacity < minCapacity || capacity > MAX_SIZE) {
+            capacity = Math.max(minCapacity, Math.min(capacity, MAX_SIZE));
+        }
+        array = Arrays.copyOf(array, Math.max(capacity, 10));
+    }
+}
@@ -1,8 +1,6 @@
 package com.github.wolray.seq;
 
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.OptionalInt;
+import java.util.*;
 import java.util.function.*;
 
 /**
@@ -14,7 +12,8 @@ public interface IntSeq extends Seq0<IntConsumer> {
 
     static IntSeq gen(IntSupplier supplier) {
         return c -> {
-            while (true) {
+            StopFlag flag = StopFlag.of(c);
+            while (!flag.isStopped()) {
                 c.accept(supplier.getAsInt());
             }
         };
@@ -22,9 +21,10 @@ public interface IntSeq extends Seq0<IntConsumer> {
 
     static IntSeq gen(int seed, IntUnaryOperator operator) {
         return c -> {
+            StopFlag flag = StopFlag.of(c);
             int t = seed;
             c.accept(t);
-            while (true) {
+            while (!flag.isStopped()) {
                 c.accept(t = operator.applyAsInt(t));
             }
         };
@@ -32,10 +32,14 @@ public interface IntSeq extends Seq0<IntConsumer> {
 
     static IntSeq gen(int seed1, int seed2, IntBinaryOperator operator) {
         return c -> {
+            StopFlag flag = StopFlag.of(c);
             int t1 = seed1, t2 = seed2;
             c.accept(t1);
+            if (flag.isStopped()) {
+                return;
+            }
             c.accept(t2);
-            while (true) {
+            while (!flag.isStopped()) {
                 c.accept(t2 = operator.applyAsInt(t1, t1 = t2));
             }
         };
@@ -43,7 +47,8 @@ public interface IntSeq extends Seq0<IntConsumer> {
 
     static IntSeq of(CharSequence cs) {
         return c -> {
-            for (int i = 0; i < cs.length(); i++) {
+            StopFlag flag = StopFlag.of(c);
+            for (int i = 0; i < cs.length() && !flag.isStopped(); i++) {
                 c.accept(cs.charAt(i));
             }
         };
@@ -51,8 +56,9 @@ public interface IntSeq extends Seq0<IntConsumer> {
 
     static IntSeq of(int... ts) {
         return c -> {
-            for (int t : ts) {
-                c.accept(t);
+            StopFlag flag = StopFlag.of(c);
+            for (int i = 0; i < ts.length && !flag.isStopped(); i++) {
+                c.accept(ts[i]);
             }
         };
     }
@@ -70,12 +76,13 @@ public interface IntSeq extends Seq0<IntConsumer> {
             throw new IllegalArgumentException("step is 0");
         }
         return c -> {
+            StopFlag flag = StopFlag.of(c);
             if (step > 0) {
-                for (int i = start; i < stop; i += step) {
+                for (int i = start; i < stop && !flag.isStopped(); i += step) {
                     c.accept(i);
                 }
             } else {
-                for (int i = start; i > stop; i += step) {
+                for (int i = start; i > stop && !flag.isStopped(); i += step) {
                     c.accept(i);
                 }
             }
@@ -84,7 +91,8 @@ public interface IntSeq extends Seq0<IntConsumer> {
 
     static IntSeq repeat(int n, int value) {
         return c -> {
-            for (int i = 0; i < n; i++) {
+            StopFlag flag = StopFlag.of(c);
+            for (int i = 0; i < n && !flag.isStopped(); i++) {
                 c.accept(value);
             }
         };
@@ -125,6 +133,14 @@ public interface IntSeq extends Seq0<IntConsumer> {
         };
     }
 
+    default DoubleSeq asDoubleSeq() {
+        return c -> consume(StopFlag.wrapInt(c, c::accept));
+    }
+
+    default LongSeq asLongSeq() {
+        return c -> consume(StopFlag.wrapInt(c, c::accept));
+    }
+
     default double average() {
         return average(null);
     }
@@ -145,7 +161,30 @@ public interface IntSeq extends Seq0<IntConsumer> {
     }
 
     default Seq<Integer> boxed() {
-        return c -> consume(c::accept);
+        return c -> consume(StopFlag.wrapInt(c, c::accept));
+    }
+
+    default IntArraySeq cache() {
+        return toBatched();
+    }
+
+    default Seq<int[]> chunked(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("non-positive size");
+        }
+        return c -> {
+            IntPair<int[]> p = reduce(new IntPair<>(0, new int[size]), (a, t) -> {
+                a.it[a.intVal++] = t;
+                if (a.intVal == size) {
+                    c.accept(a.it);
+                    a.it = new int[size];
+                    a.intVal = 0;
+                }
+            });
+            if (p.intVal > 0) {
+                c.accept(Arrays.copyOf(p.it, p.intVal));
+            }
+        };
     }
 
     default IntSeq circle() {
@@ -253,11 +292,11 @@ public interface IntSeq extends Seq0<IntConsumer> {
     }
 
     default IntSeq filter(IntPredicate predicate) {
-        return c -> consume(t -> {
+        return c -> consume(StopFlag.wrapInt(c, t -> {
             if (predicate.test(t)) {
                 c.accept(t);
             }
-        });
+        }));
     }
 
     default IntSeq filter(int n, IntPredicate predicate) {
@@ -282,10 +321,13 @@ public interface IntSeq extends Seq0<IntConsumer> {
 
     default OptionalInt find(IntPredicate predicate) {
         Mutable<Integer> m = new Mutable<>(null);
-        consumeTillStop(t -> {
-            if (predicate.test(t)) {
-                m.set(t);
-                Seq.stop();
+        consumeTillStop(new StopFlag.ForInt(null) {
+            @Override
+            protected void onAccept(int t) {
+                if (predicate.test(t)) {
+                    m.set(t);
+                    stop();
+                }
             }
         });
         return m.isSet ? OptionalInt.of(m.it) : OptionalInt.empty();
@@ -348,15 +390,23 @@ public interface IntSeq extends Seq0<IntConsumer> {
     }
 
     default IntSeq map(IntUnaryOperator function) {
-        return c -> consume(t -> c.accept(function.applyAsInt(t)));
+        return c -> consume(StopFlag.wrapInt(c, t -> c.accept(function.applyAsInt(t))));
     }
 
     default IntSeq mapIndexed(IndexIntToInt function) {
         return c -> consumeIndexed((i, t) -> c.accept(function.apply(i, t)));
     }
 
+    default DoubleSeq mapToDouble(IntToDoubleFunction function) {
+        return c -> consume(StopFlag.wrapInt(c, t -> c.accept(function.applyAsDouble(t))));
+    }
+
+    default LongSeq mapToLong(IntToLongFunction function) {
+        return c -> consume(StopFlag.wrapInt(c, t -> c.accept(function.applyAsLong(t))));
+    }
+
     default <E> Seq<E> mapToObj(IntFunction<E> function) {
-        return c -> consume(t -> c.accept(function.apply(t)));
+        return c -> consume(StopFlag.wrapInt(c, t -> c.accept(function.apply(t))));
     }
 
     default <E> Seq<E> mapToObj(IntFunction<E> function, int n, IntFunction<E> substitute) {
@@ -406,7 +456,7 @@ public interface IntSeq extends Seq0<IntConsumer> {
     }
 
     default IntSeq onEach(IntConsumer consumer) {
-        return c -> consume(consumer.andThen(c));
+        return c -> consume(StopFlag.wrapInt(c, consumer.andThen(c)));
     }
 
     default IntSeq onEach(int n, IntConsumer consumer) {
@@ -420,6 +470,10 @@ public interface IntSeq extends Seq0<IntConsumer> {
         });
     }
 
+    default IntArraySeq parallelSorted() {
+        return toBatched().parallelSort();
+    }
+
     default IntSeq partial(int n, IntConsumer substitute) {
         return c -> consume(c, n, substitute);
     }
@@ -441,6 +495,14 @@ public interface IntSeq extends Seq0<IntConsumer> {
         });
     }
 
+    default int sizeOrDefault() {
+        return 10;
+    }
+
+    default IntArraySeq sorted() {
+        return toBatched().sort();
+    }
+
     default int sum() {
         return reduce(new int[1], (a, t) -> a[0] += t)[0];
     }
@@ -450,34 +512,68 @@ public interface IntSeq extends Seq0<IntConsumer> {
     }
 
     default IntSeq take(int n) {
-        return n <= 0 ? empty : c -> {
-            int[] i = {n};
-            consumeTillStop(t -> {
-                if (i[0]-- > 0) {
-                    c.accept(t);
-                } else {
-                    Seq.stop();
+        return n <= 0 ? empty : c -> consumeTillStop(new StopFlag.ForInt(c) {
+            int i = n;
+
+            @Override
+            protected void onAccept(int t) {
+                c.accept(t);
+                if (--i == 0) {
+                    stop();
                 }
-            });
-        };
+            }
+        });
     }
 
     default IntSeq takeWhile(IntPredicate predicate) {
-        return c -> consumeTillStop(t -> {
-            if (predicate.test(t)) {
-                c.accept(t);
-            } else {
-                Seq.stop();
+        return c -> consumeTillStop(new StopFlag.ForInt(c) {
+            @Override
+            protected void onAccept(int t) {
+                if (predicate.test(t)) {
+                    c.accept(t);
+                } else {
+                    stop();
+                }
             }
         });
     }
 
     default int[] toArray() {
-        return toBatched().toArray();
+        return toBatched().release();
     }
 
-    default Batched toBatched() {
-        return reduce(new Batched(), Batched::add);
+    default IntArraySeq toBatched() {
+        return reduce(new IntArraySeq(sizeOrDefault()), IntArraySeq::add);
+    }
+
+    default OffHeapSeq.OfInt toOffHeap() {
+        return new OffHeapSeq.OfInt().addAll(this);
+    }
+
+    default Seq<int[]> windowed(int size, int step, boolean allowPartial) {
+        if (size <= 0 || step <= 0) {
+            throw new IllegalArgumentException("non-positive size or step");
+        }
+        return c -> {
+            Queue<IntPair<int[]>> queue = new LinkedList<>();
+            foldInt(0, (left, t) -> {
+                if (left == 0) {
+                    left = step;
+                    queue.offer(new IntPair<>(0, new int[size]));
+                }
+                queue.forEach(sub -> sub.it[sub.intVal++] = t);
+                IntPair<int[]> first = queue.peek();
+                if (first != null && first.intVal == size) {
+                    queue.poll();
+                    c.accept(first.it);
+                }
+                return left - 1;
+            });
+            if (allowPartial) {
+                queue.forEach(p -> c.accept(Arrays.copyOf(p.it, p.intVal)));
+            }
+            queue.clear();
+        };
     }
 
     interface ObjIntConsumer<E> {
@@ -512,49 +608,9 @@ public interface IntSeq extends Seq0<IntConsumer> {
         int apply(int i, int t);
     }
 
-    class Batched implements IntSeq {
-        private final LinkedList<int[]> list = new LinkedList<>();
-        private int batchSize = 10;
-        public int size;
-        private int[] cur;
-        private int index;
-
-        @Override
-        public void consume(IntConsumer consumer) {
-            list.forEach(a -> {
-                for (int i = 0, size = sizeOf(a); i < size; i++) {
-                    consumer.accept(a[i]);
-                }
-            });
-        }
-
-        @Override
-        public int[] toArray() {
-            int[] a = new int[size];
-            int pos = 0;
-            for (int[] sub : list) {
-                System.arraycopy(sub, 0, a, pos, sizeOf(sub));
-                pos += sub.length;
-            }
-            return a;
-        }
-
-        public void add(int t) {
-            if (cur == null) {
-                cur = new int[batchSize];
-                list.add(cur);
-                index = 0;
-            }
-            cur[index++] = t;
-            size++;
-            if (index == batchSize) {
-                cur = null;
-                batchSize = Math.min(300, Math.max(batchSize, size >> 1));
-            }
-        }
-
-        private int sizeOf(int[] a) {
-            return a != cur ? a.length : index;
-        }
-    }
+    /**
+     * @deprecated use {@link IntArraySeq}, which {@link #toBatched()} returns
+     */
+    @Deprecated
+    class Batched extends IntArraySeq {}
 }
@@ -13,9 +13,21 @@ public interface ItrSeq<T> extends Iterable<T>, Seq<T> {
         return this;
     }
 
+    @Override
+    default ItrSeq<T> asIterable(Async async) {
+        return this;
+    }
+
     @Override
     default void consume(Consumer<T> consumer) {
-        forEach(consumer);
+        StopFlag flag = StopFlag.of(consumer);
+        if (flag == StopFlag.NEVER) {
+            forEach(consumer);
+        } else {
+            for (Iterator<T> iterator = iterator(); !flag.isStopped() && iterator.hasNext(); ) {
+                consumer.accept(iterator.next());
+            }
+        }
     }
 
     @Override
@@ -46,7 +58,7 @@ public interface ItrSeq<T> extends Iterable<T>, Seq<T> {
                         return cls.cast(t);
                     }
                 }
-                return Seq.stop();
+                return end();
             }
         };
     }
@@ -125,7 +137,7 @@ public interface ItrSeq<T> extends Iterable<T>, Seq<T> {
                         return function.apply(t);
                     }
                 }
-                return Seq.stop();
+                return end();
             }
         };
     }
@@ -143,7 +155,7 @@ public interface ItrSeq<T> extends Iterable<T>, Seq<T> {
                         return e;
                     }
                 }
-                return Seq.stop();
+                return end();
             }
         };
     }
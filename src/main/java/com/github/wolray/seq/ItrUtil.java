@@ -12,16 +12,28 @@ import java.util.stream.StreamSupport;
  * @author wolray
  */
 public interface ItrUtil {
+    static void close(Iterator<?> iterator) {
+        if (iterator instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable)iterator).close();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
     static <T> Iterator<T> drop(Iterator<T> iterator, int n) {
         return n <= 0 ? iterator : new PickItr<T>() {
             int i = n;
 
             @Override
             public T pick() {
-                for (; i > 0; i--) {
-                    pop(iterator);
+                for (; i > 0 && iterator.hasNext(); i--) {
+                    iterator.next();
                 }
-                return pop(iterator);
+                return iterator.hasNext() ? iterator.next() : end();
             }
         };
     }
@@ -32,14 +44,14 @@ public interface ItrUtil {
 
             @Override
             public T pick() {
-                T t = pop(iterator);
-                if (flag) {
-                    while (predicate.test(t)) {
-                        t = pop(iterator);
+                while (iterator.hasNext()) {
+                    T t = iterator.next();
+                    if (!flag || !predicate.test(t)) {
+                        flag = false;
+                        return t;
                     }
-                    flag = false;
                 }
-                return t;
+                return end();
             }
         };
     }
@@ -54,7 +66,7 @@ public interface ItrUtil {
                         return t;
                     }
                 }
-                return Seq.stop();
+                return end();
             }
         };
     }
@@ -66,7 +78,10 @@ public interface ItrUtil {
             @Override
             public T pick() {
                 while (!cur.hasNext()) {
-                    cur = pop(iterator).iterator();
+                    if (!iterator.hasNext()) {
+                        return end();
+                    }
+                    cur = iterator.next().iterator();
                 }
                 return cur.next();
             }
@@ -87,7 +102,7 @@ public interface ItrUtil {
                         return opt.get();
                     }
                 }
-                return Seq.stop();
+                return end();
             }
         };
     }
@@ -138,7 +153,11 @@ public interface ItrUtil {
 
             @Override
             public T pick() {
-                return i-- > 0 ? pop(iterator) : Seq.stop();
+                if (i > 0 && iterator.hasNext()) {
+                    i--;
+                    return iterator.next();
+                }
+                return end();
             }
         };
     }
@@ -147,8 +166,13 @@ public interface ItrUtil {
         return new PickItr<T>() {
             @Override
             public T pick() {
-                T t = pop(iterator);
-                return predicate.test(t) ? t : Seq.stop();
+                if (iterator.hasNext()) {
+                    T t = iterator.next();
+                    if (predicate.test(t)) {
+                        return t;
+                    }
+                }
+                return end();
             }
         };
     }
@@ -159,13 +183,16 @@ public interface ItrUtil {
 
             @Override
             public T pick() {
-                T t = pop(iterator);
+                if (!iterator.hasNext()) {
+                    return end();
+                }
+                T t = iterator.next();
                 E curr = function.apply(t);
                 if (last == null || testPrevCurr.test(last, curr)) {
                     last = curr;
                     return t;
                 } else {
-                    return Seq.stop();
+                    return end();
                 }
             }
         };
@@ -192,7 +219,10 @@ public interface ItrUtil {
             @Override
             public T pick() {
                 flag = !flag;
-                return flag ? pop(iterator) : t;
+                if (flag) {
+                    return iterator.hasNext() ? iterator.next() : end();
+                }
+                return t;
             }
         };
     }
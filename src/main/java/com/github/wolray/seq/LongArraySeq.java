@@ -0,0 +1,205 @@
+package com.github.wolray.seq;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.LongConsumer;
+
+/**
+ * Random-access growable {@code long} list behind {@link LongSeq#toArray()},
+ * {@link LongSeq#toBatched()} and {@link LongSeq#cache()}, the {@code long} counterpart of
+ * {@link IntArraySeq}. Elements sit in one {@code long[]} that grows by half when full or is presized
+ * exactly when the size is known. {@link #subList} returns a view sharing the same array; views
+ * can be read, set and sorted but not appended to.
+ *
+ * @author wolray
+ */
+public class LongArraySeq implements LongSeq {
+    private static final long[] EMPTY = new long[0];
+    private static final int MAX_SIZE = Integer.MAX_VALUE - 8;
+
+    private long[] array;
+    private final int offset;
+    private int size;
+    private final boolean view;
+
+    public LongArraySeq() {
+        this(10);
+    }
+
+    public LongArraySeq(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("negative capacity");
+        }
+        array = capacity == 0 ? EMPTY : new long[capacity];
+        offset = 0;
+        view = false;
+    }
+
+    private LongArraySeq(long[] array, int offset, int size, boolean view) {
+        this.array = array;
+        this.offset = offset;
+        this.size = size;
+        this.view = view;
+    }
+
+    public static LongArraySeq wrap(long... array) {
+        return new LongArraySeq(array, 0, array.length, false);
+    }
+
+    public void add(long t) {
+        if (view || size == array.length) {
+            grow(size + 1);
+        }
+        array[size++] = t;
+    }
+
+    public void addAll(LongArraySeq seq) {
+        int n = seq.size;
+        if (view || size + n > array.length) {
+            grow(size + n);
+        }
+        System.arraycopy(seq.array, seq.offset, array, size, n);
+        size += n;
+    }
+
+    public int binarySearch(long key) {
+        int i = Arrays.binarySearch(array, offset, offset + size, key);
+        return i >= 0 ? i - offset : i + offset;
+    }
+
+    @Override
+    public ItrSeq<Long> boxed() {
+        return () -> new Iterator<Long>() {
+            int i;
+
+            @Override
+            public boolean hasNext() {
+                return i < size;
+            }
+
+            @Override
+            public Long next() {
+                if (i >= size) {
+                    throw new NoSuchElementException();
+                }
+                return array[offset + i++];
+            }
+        };
+    }
+
+    @Override
+    public LongArraySeq cache() {
+        return this;
+    }
+
+    @Override
+    public void consume(LongConsumer consumer) {
+        StopFlag flag = StopFlag.of(consumer);
+        long[] a = array;
+        int end = offset + size;
+        if (flag == StopFlag.NEVER) {
+            for (int i = offset; i < end; i++) {
+                consumer.accept(a[i]);
+            }
+        } else {
+            for (int i = offset; i < end && !flag.isStopped(); i++) {
+                consumer.accept(a[i]);
+            }
+        }
+    }
+
+    @Override
+    public int count() {
+        return size;
+    }
+
+    public long get(int index) {
+        checkIndex(index);
+        return array[offset + index];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public LongArraySeq parallelSort() {
+        Arrays.parallelSort(array, offset, offset + size);
+        return this;
+    }
+
+    public long set(int index, long t) {
+        checkIndex(index);
+        long old = array[offset + index];
+        array[offset + index] = t;
+        return old;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int sizeOrDefault() {
+        return size;
+    }
+
+    public LongArraySeq sort() {
+        Arrays.sort(array, offset, offset + size);
+        return this;
+    }
+
+    public LongArraySeq subList(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("from: " + from + ", to: " + to + ", size: " + size);
+        }
+        return new LongArraySeq(array, offset + from, to - from, true);
+    }
+
+    @Override
+    public long[] toArray() {
+        return Arrays.copyOfRange(array, offset, offset + size);
+    }
+
+    public void trimToSize() {
+        if (!view && size < array.length) {
+            array = Arrays.copyOf(array, size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(array[offset + i]);
+        }
+        return sb.append(']').toString();
+    }
+
+    long[] release() {
+        return !view && size == array.length ? array : toArray();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private void grow(int minCapacity) {
+        if (view) {
+            throw new UnsupportedOperationException("cannot append to a subList view");
+        }
+        if (minCapacity < 0 || minCapacity > MAX_SIZE) {
+            throw new OutOfMemoryError("LongArraySeq too large");
+        }
+        int capacity = array.length + (array.length >> 1);
+        if (capacity < minCapacity || capacity > MAX_SIZE) {
+            capacity = Math.max(minCapacity, Math.min(capacity, MAX_SIZE));
+        }
+        array = Arrays.copyOf(array, Math.max(capacity, 10));
+    }
+}
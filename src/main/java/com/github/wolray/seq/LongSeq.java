@@ -0,0 +1,595 @@
+package com.github.wolray.seq;
+
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * @author wolray
+ */
+public interface LongSeq extends Seq0<LongConsumer> {
+    LongSeq empty = c -> {};
+    LongConsumer nothing = t -> {};
+
+    static LongSeq gen(LongSupplier supplier) {
+        return c -> {
+            StopFlag flag = StopFlag.of(c);
+            while (!flag.isStopped()) {
+                c.accept(supplier.getAsLong());
+            }
+        };
+    }
+
+    static LongSeq gen(long seed, LongUnaryOperator operator) {
+        return c -> {
+            StopFlag flag = StopFlag.of(c);
+            long t = seed;
+            c.accept(t);
+            while (!flag.isStopped()) {
+                c.accept(t = operator.applyAsLong(t));
+            }
+        };
+    }
+
+    static LongSeq gen(long seed1, long seed2, LongBinaryOperator operator) {
+        return c -> {
+            StopFlag flag = StopFlag.of(c);
+            long t1 = seed1, t2 = seed2;
+            c.accept(t1);
+            if (flag.isStopped()) {
+                return;
+            }
+            c.accept(t2);
+            while (!flag.isStopped()) {
+                c.accept(t2 = operator.applyAsLong(t1, t1 = t2));
+            }
+        };
+    }
+
+    static LongSeq of(long... ts) {
+        return c -> {
+            StopFlag flag = StopFlag.of(c);
+            for (int i = 0; i < ts.length && !flag.isStopped(); i++) {
+                c.accept(ts[i]);
+            }
+        };
+    }
+
+    static LongSeq range(long stop) {
+        return range(0, stop, 1);
+    }
+
+    static LongSeq range(long start, long stop) {
+        return range(start, stop, 1);
+    }
+
+    static LongSeq range(long start, long stop, long step) {
+        if (step == 0) {
+            throw new IllegalArgumentException("step is 0");
+        }
+        return c -> {
+            StopFlag flag = StopFlag.of(c);
+            if (step > 0) {
+                for (long i = start; i < stop && !flag.isStopped(); i += step) {
+                    c.accept(i);
+                }
+            } else {
+                for (long i = start; i > stop && !flag.isStopped(); i += step) {
+                    c.accept(i);
+                }
+            }
+        };
+    }
+
+    static LongSeq repeat(int n, long value) {
+        return c -> {
+            StopFlag flag = StopFlag.of(c);
+            for (int i = 0; i < n && !flag.isStopped(); i++) {
+                c.accept(value);
+            }
+        };
+    }
+
+    default boolean all(LongPredicate predicate) {
+        return !find(predicate.negate()).isPresent();
+    }
+
+    default boolean any(LongPredicate predicate) {
+        return find(predicate).isPresent();
+    }
+
+    default boolean anyNot(LongPredicate predicate) {
+        return any(predicate.negate());
+    }
+
+    default LongSeq append(long t) {
+        return c -> {
+            consume(c);
+            c.accept(t);
+        };
+    }
+
+    default LongSeq append(long... t) {
+        return c -> {
+            consume(c);
+            for (long x : t) {
+                c.accept(x);
+            }
+        };
+    }
+
+    default LongSeq appendWith(LongSeq seq) {
+        return c -> {
+            consume(c);
+            seq.consume(c);
+        };
+    }
+
+    default DoubleSeq asDoubleSeq() {
+        return c -> consume(StopFlag.wrapLong(c, c::accept));
+    }
+
+    default double average() {
+        return average(null);
+    }
+
+    default double average(LongToDoubleFunction weightFunction) {
+        double[] a = {0, 0};
+        consume(t -> {
+            if (weightFunction != null) {
+                double w = weightFunction.applyAsDouble(t);
+                a[0] += t * w;
+                a[1] += w;
+            } else {
+                a[0] += t;
+                a[1] += 1;
+            }
+        });
+        return a[1] != 0 ? a[0] / a[1] : 0;
+    }
+
+    default Seq<Long> boxed() {
+        return c -> consume(StopFlag.wrapLong(c, c::accept));
+    }
+
+    default LongArraySeq cache() {
+        return toBatched();
+    }
+
+    default Seq<long[]> chunked(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("non-positive size");
+        }
+        return c -> {
+            IntPair<long[]> p = reduce(new IntPair<>(0, new long[size]), (a, t) -> {
+                a.it[a.intVal++] = t;
+                if (a.intVal == size) {
+                    c.accept(a.it);
+                    a.it = new long[size];
+                    a.intVal = 0;
+                }
+            });
+            if (p.intVal > 0) {
+                c.accept(Arrays.copyOf(p.it, p.intVal));
+            }
+        };
+    }
+
+    default LongSeq circle() {
+        return c -> {
+            while (true) {
+                consume(c);
+            }
+        };
+    }
+
+    default void consume(LongConsumer consumer, int n, LongConsumer substitute) {
+        if (n > 0) {
+            int[] a = {n - 1};
+            consume(t -> {
+                if (a[0] < 0) {
+                    consumer.accept(t);
+                } else {
+                    a[0]--;
+                    substitute.accept(t);
+                }
+            });
+        } else {
+            consume(consumer);
+        }
+    }
+
+    default void consumeIndexed(IndexLongConsumer consumer) {
+        int[] a = {0};
+        consume(t -> consumer.accept(a[0]++, t));
+    }
+
+    default void consumeIndexedTillStop(IndexLongConsumer consumer) {
+        int[] a = {0};
+        consumeTillStop(t -> consumer.accept(a[0]++, t));
+    }
+
+    default int count() {
+        return reduce(new int[1], (a, t) -> a[0]++)[0];
+    }
+
+    default int count(LongPredicate predicate) {
+        return reduce(new int[1], (a, t) -> {
+            if (predicate.test(t)) {
+                a[0]++;
+            }
+        })[0];
+    }
+
+    default int countNot(LongPredicate predicate) {
+        return count(predicate.negate());
+    }
+
+    default LongSeq distinct() {
+        return distinctBy(i -> i);
+    }
+
+    default <E> LongSeq distinctBy(LongFunction<E> function) {
+        return c -> reduce(new HashSet<>(), (set, t) -> {
+            if (set.add(function.apply(t))) {
+                c.accept(t);
+            }
+        });
+    }
+
+    default LongSeq drop(int n) {
+        return n <= 0 ? this : partial(n, nothing);
+    }
+
+    default LongSeq dropWhile(LongPredicate predicate) {
+        return c -> foldBoolean(false, (b, t) -> {
+            if (b || !predicate.test(t)) {
+                c.accept(t);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    default LongSeq duplicateAll(int times) {
+        return c -> {
+            for (int i = 0; i < times; i++) {
+                consume(c);
+            }
+        };
+    }
+
+    default LongSeq duplicateEach(int times) {
+        return c -> consume(t -> {
+            for (int i = 0; i < times; i++) {
+                c.accept(t);
+            }
+        });
+    }
+
+    default LongSeq duplicateIf(int times, LongPredicate predicate) {
+        return c -> consume(t -> {
+            if (predicate.test(t)) {
+                for (int i = 0; i < times; i++) {
+                    c.accept(t);
+                }
+            } else {
+                c.accept(t);
+            }
+        });
+    }
+
+    default LongSeq filter(LongPredicate predicate) {
+        return c -> consume(StopFlag.wrapLong(c, t -> {
+            if (predicate.test(t)) {
+                c.accept(t);
+            }
+        }));
+    }
+
+    default LongSeq filter(int n, LongPredicate predicate) {
+        return c -> consume(c, n, t -> {
+            if (predicate.test(t)) {
+                c.accept(t);
+            }
+        });
+    }
+
+    default LongSeq filterIndexed(IndexLongPredicate predicate) {
+        return c -> consumeIndexed((i, t) -> {
+            if (predicate.test(i, t)) {
+                c.accept(t);
+            }
+        });
+    }
+
+    default LongSeq filterNot(LongPredicate predicate) {
+        return filter(predicate.negate());
+    }
+
+    default OptionalLong find(LongPredicate predicate) {
+        Mutable<Long> m = new Mutable<>(null);
+        consumeTillStop(new StopFlag.ForLong(null) {
+            @Override
+            protected void onAccept(long t) {
+                if (predicate.test(t)) {
+                    m.set(t);
+                    stop();
+                }
+            }
+        });
+        return m.isSet ? OptionalLong.of(m.it) : OptionalLong.empty();
+    }
+
+    default OptionalLong findNot(LongPredicate predicate) {
+        return find(predicate.negate());
+    }
+
+    default OptionalLong first() {
+        return find(t -> true);
+    }
+
+    default LongSeq flatMap(LongFunction<LongSeq> function) {
+        return c -> consume(t -> function.apply(t).consume(c));
+    }
+
+    default <E> E fold(E init, ObjLongToObj<E> function) {
+        Mutable<E> m = new Mutable<>(init);
+        consume(t -> m.it = function.apply(m.it, t));
+        return m.it;
+    }
+
+    default int foldInt(int init, IntLongToInt function) {
+        int[] a = {init};
+        consume(t -> a[0] = function.apply(a[0], t));
+        return a[0];
+    }
+
+    default double foldDouble(double init, DoubleLongToDouble function) {
+        double[] a = {init};
+        consume(t -> a[0] = function.apply(a[0], t));
+        return a[0];
+    }
+
+    default long foldLong(long init, LongBinaryOperator function) {
+        long[] a = {init};
+        consume(t -> a[0] = function.applyAsLong(a[0], t));
+        return a[0];
+    }
+
+    default boolean foldBoolean(boolean init, BoolLongToBool function) {
+        boolean[] a = {init};
+        consume(t -> a[0] = function.apply(a[0], t));
+        return a[0];
+    }
+
+    default OptionalLong last() {
+        Mutable<Long> m = new Mutable<>(null);
+        consume(m::set);
+        return m.isSet ? OptionalLong.of(m.it) : OptionalLong.empty();
+    }
+
+    default OptionalLong last(LongPredicate predicate) {
+        return filter(predicate).last();
+    }
+
+    default OptionalLong lastNot(LongPredicate predicate) {
+        return last(predicate.negate());
+    }
+
+    default LongSeq map(LongUnaryOperator function) {
+        return c -> consume(StopFlag.wrapLong(c, t -> c.accept(function.applyAsLong(t))));
+    }
+
+    default LongSeq mapIndexed(IndexLongToLong function) {
+        return c -> consumeIndexed((i, t) -> c.accept(function.apply(i, t)));
+    }
+
+    default DoubleSeq mapToDouble(LongToDoubleFunction function) {
+        return c -> consume(StopFlag.wrapLong(c, t -> c.accept(function.applyAsDouble(t))));
+    }
+
+    default IntSeq mapToInt(LongToIntFunction function) {
+        return c -> consume(StopFlag.wrapLong(c, t -> c.accept(function.applyAsInt(t))));
+    }
+
+    default <E> Seq<E> mapToObj(LongFunction<E> function) {
+        return c -> consume(StopFlag.wrapLong(c, t -> c.accept(function.apply(t))));
+    }
+
+    default <E> Seq<E> mapToObj(LongFunction<E> function, int n, LongFunction<E> substitute) {
+        return n <= 0 ? mapToObj(function) : c -> {
+            int[] a = {n - 1};
+            consume(t -> {
+                if (a[0] < 0) {
+                    c.accept(function.apply(t));
+                } else {
+                    a[0]--;
+                    c.accept(substitute.apply(t));
+                }
+            });
+        };
+    }
+
+    default Long max() {
+        return fold(null, (f, t) -> f == null || f < t ? t : f);
+    }
+
+    default <V extends Comparable<V>> LongPair<V> max(LongFunction<V> function) {
+        return reduce(new LongPair<>(0, null), (p, t) -> {
+            V v = function.apply(t);
+            if (p.it == null || p.it.compareTo(v) < 0) {
+                p.longVal = t;
+                p.it = v;
+            }
+        });
+    }
+
+    default Long min() {
+        return fold(null, (f, t) -> f == null || f > t ? t : f);
+    }
+
+    default <V extends Comparable<V>> LongPair<V> min(LongFunction<V> function) {
+        return reduce(new LongPair<>(0, null), (p, t) -> {
+            V v = function.apply(t);
+            if (p.it == null || p.it.compareTo(v) > 0) {
+                p.longVal = t;
+                p.it = v;
+            }
+        });
+    }
+
+    default boolean none(LongPredicate predicate) {
+        return !find(predicate).isPresent();
+    }
+
+    default LongSeq onEach(LongConsumer consumer) {
+        return c -> consume(StopFlag.wrapLong(c, consumer.andThen(c)));
+    }
+
+    default LongSeq onEach(int n, LongConsumer consumer) {
+        return c -> consume(c, n, consumer.andThen(c));
+    }
+
+    default LongSeq onEachIndexed(IndexLongConsumer consumer) {
+        return c -> consumeIndexed((i, t) -> {
+            consumer.accept(i, t);
+            c.accept(t);
+        });
+    }
+
+    default LongSeq partial(int n, LongConsumer substitute) {
+        return c -> consume(c, n, substitute);
+    }
+
+    default <E> E reduce(E des, ObjLongConsumer<E> consumer) {
+        consume(t -> consumer.accept(des, t));
+        return des;
+    }
+
+    default LongSeq replace(int n, LongUnaryOperator operator) {
+        return c -> consume(c, n, t -> c.accept(operator.applyAsLong(t)));
+    }
+
+    default LongSeq runningFold(long init, LongBinaryOperator function) {
+        return c -> foldLong(init, (acc, t) -> {
+            acc = function.applyAsLong(acc, t);
+            c.accept(acc);
+            return acc;
+        });
+    }
+
+    default int sizeOrDefault() {
+        return 10;
+    }
+
+    default long sum() {
+        return reduce(new long[1], (a, t) -> a[0] += t)[0];
+    }
+
+    default long sum(LongUnaryOperator function) {
+        return reduce(new long[1], (a, t) -> a[0] += function.applyAsLong(t))[0];
+    }
+
+    default LongSeq take(int n) {
+        return n <= 0 ? empty : c -> consumeTillStop(new StopFlag.ForLong(c) {
+            int i = n;
+
+            @Override
+            protected void onAccept(long t) {
+                c.accept(t);
+                if (--i == 0) {
+                    stop();
+                }
+            }
+        });
+    }
+
+    default LongSeq takeWhile(LongPredicate predicate) {
+        return c -> consumeTillStop(new StopFlag.ForLong(c) {
+            @Override
+            protected void onAccept(long t) {
+                if (predicate.test(t)) {
+                    c.accept(t);
+                } else {
+                    stop();
+                }
+            }
+        });
+    }
+
+    default long[] toArray() {
+        return toBatched().release();
+    }
+
+    default LongArraySeq toBatched() {
+        return reduce(new LongArraySeq(sizeOrDefault()), LongArraySeq::add);
+    }
+
+    default OffHeapSeq.OfLong toOffHeap() {
+        return new OffHeapSeq.OfLong().addAll(this);
+    }
+
+    default Seq<long[]> windowed(int size, int step, boolean allowPartial) {
+        if (size <= 0 || step <= 0) {
+            throw new IllegalArgumentException("non-positive size or step");
+        }
+        return c -> {
+            Queue<IntPair<long[]>> queue = new LinkedList<>();
+            foldInt(0, (left, t) -> {
+                if (left == 0) {
+                    left = step;
+                    queue.offer(new IntPair<>(0, new long[size]));
+                }
+                queue.forEach(sub -> sub.it[sub.intVal++] = t);
+                IntPair<long[]> first = queue.peek();
+                if (first != null && first.intVal == size) {
+                    queue.poll();
+                    c.accept(first.it);
+                }
+                return left - 1;
+            });
+            if (allowPartial) {
+                queue.forEach(p -> c.accept(Arrays.copyOf(p.it, p.intVal)));
+            }
+            queue.clear();
+        };
+    }
+
+    interface ObjLongConsumer<E> {
+        void accept(E e, long t);
+    }
+
+    interface ObjLongToObj<E> {
+        E apply(E e, long t);
+    }
+
+    interface IntLongToInt {
+        int apply(int acc, long t);
+    }
+
+    interface DoubleLongToDouble {
+        double apply(double acc, long t);
+    }
+
+    interface BoolLongToBool {
+        boolean apply(boolean acc, long t);
+    }
+
+    interface IndexLongConsumer {
+        void accept(int i, long t);
+    }
+
+    interface IndexLongPredicate {
+        boolean test(int i, long t);
+    }
+
+    interface IndexLongToLong {
+        long apply(int i, long t);
+    }
+
+    /**
+     * @deprecated use {@link LongArraySeq}, which {@link #toBatched()} returns
+     */
+    @Deprecated
+    class Batched extends LongArraySeq {}
+}
@@ -0,0 +1,168 @@
+package com.github.wolray.seq;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Multicast ring behind {@link Seq#shareIn}. A single producer {@link #publish publishes} into a
+ * power-of-two ring of sequence-stamped entries and never waits for subscribers. Every subscriber
+ * keeps its own cursor, starts from the oldest entry still in the ring, and parks on its own thread
+ * when it has caught up. A subscriber that falls more than a ring behind skips to the oldest
+ * surviving entry; how far behind it is and how much it skipped are exposed by {@link Subscriber}.
+ *
+ * @author wolray
+ */
+public class MulticastRing<T> implements Seq<T> {
+    static final int SPINS = 100;
+
+    private final AtomicReferenceArray<Entry<T>> entries;
+    private final int mask;
+    private final Async async;
+    private final AtomicLong cursor = new AtomicLong();
+    private final CopyOnWriteArrayList<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private volatile boolean closed;
+    private volatile boolean cancelled;
+
+    public MulticastRing(int capacity) {
+        this(capacity, null);
+    }
+
+    public MulticastRing(int capacity, Async async) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("non-positive capacity");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        entries = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+        this.async = async;
+    }
+
+    public void cancel() {
+        cancelled = true;
+        close();
+    }
+
+    public void close() {
+        closed = true;
+        subscribers.forEach(Subscriber::wake);
+    }
+
+    @Override
+    public void consume(Consumer<T> consumer) {
+        if (async != null) {
+            async.submit(() -> subscribe(consumer));
+        } else {
+            subscribe(consumer);
+        }
+    }
+
+    public long cursor() {
+        return cursor.get();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public void publish(T t) {
+        long seq = cursor.get();
+        entries.lazySet((int)seq & mask, new Entry<>(seq, t));
+        cursor.set(seq + 1);
+        subscribers.forEach(Subscriber::wake);
+    }
+
+    public void subscribe(Consumer<T> consumer) {
+        Subscriber s = new Subscriber(Math.max(0, cursor.get() - entries.length()));
+        subscribers.add(s);
+        try {
+            StopFlag flag = StopFlag.of(consumer);
+            for (int idle = 0; !flag.isStopped() && !cancelled; ) {
+                long next = s.sequence;
+                if (next == cursor.get()) {
+                    if (closed && next == cursor.get()) {
+                        return;
+                    }
+                    s.await(idle++);
+                    continue;
+                }
+                idle = 0;
+                Entry<T> e = entries.get((int)next & mask);
+                if (e.seq != next) {
+                    long oldest = cursor.get() - entries.length();
+                    s.dropped += oldest - next;
+                    s.sequence = oldest;
+                    continue;
+                }
+                s.sequence = next + 1;
+                consumer.accept(e.value);
+            }
+        } finally {
+            subscribers.remove(s);
+        }
+    }
+
+    public Seq<Subscriber> subscribers() {
+        return subscribers::forEach;
+    }
+
+    static class Entry<T> {
+        final long seq;
+        final T value;
+
+        Entry(long seq, T value) {
+            this.seq = seq;
+            this.value = value;
+        }
+    }
+
+    public class Subscriber {
+        private volatile long sequence;
+        private volatile long dropped;
+        private volatile Thread parked;
+
+        Subscriber(long sequence) {
+            this.sequence = sequence;
+        }
+
+        public long dropped() {
+            return dropped;
+        }
+
+        public long lag() {
+            return cursor.get() - sequence;
+        }
+
+        public long position() {
+            return sequence;
+        }
+
+        void await(int idle) {
+            if (idle < SPINS) {
+                Thread.yield();
+                return;
+            }
+            parked = Thread.currentThread();
+            if (sequence == cursor.get() && !closed) {
+                LockSupport.park(this);
+            }
+            parked = null;
+        }
+
+        void wake() {
+            Thread t = parked;
+            if (t != null) {
+                LockSupport.unpark(t);
+            }
+        }
+    }
+}
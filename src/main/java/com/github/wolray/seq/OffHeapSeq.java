@@ -0,0 +1,309 @@
+package com.github.wolray.seq;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Primitive cache kept in direct {@link ByteBuffer}s, out of the garbage collector's view. Chunks
+ * double from {@code 1 << FIRST_SHIFT} elements up to {@code 1 << MAX_SHIFT} elements and then stay
+ * at that size, so a cache can hold more than {@code Integer.MAX_VALUE} elements and {@code get}
+ * stays O(1). {@link #close()} frees the chunks eagerly where the JDK allows it; replays, reads and
+ * bulk fills count as users of the chunks, and a close that arrives while any of them runs, even from
+ * inside a consumer, only refuses new users and frees the chunks when the last one leaves. A single
+ * {@code add} is a plain write that only looks at the closed state when it opens a new chunk. Every
+ * cache reports its {@link #bytes()} and {@link #allocatedBytes()} sums the
+ * caches that are still open.
+ *
+ * @author wolray
+ */
+public abstract class OffHeapSeq implements AutoCloseable {
+    static final int FIRST_SHIFT = 10;
+    static final int MAX_SHIFT = 20;
+    static final int GROWING = MAX_SHIFT - FIRST_SHIFT;
+    static final long GROWING_END = startOf(GROWING);
+    private static final AtomicLong ALLOCATED = new AtomicLong();
+    private static final Consumer<ByteBuffer> FREE = freeOperation();
+    private static final int CLOSED = Integer.MIN_VALUE;
+
+    private final int elementShift;
+    ByteBuffer[] chunks = new ByteBuffer[8];
+    int count;
+    ByteBuffer cur;
+    int pos;
+    long size;
+    private long bytes;
+    private final AtomicInteger users = new AtomicInteger();
+
+    OffHeapSeq(int elementShift) {
+        this.elementShift = elementShift;
+    }
+
+    public static long allocatedBytes() {
+        return ALLOCATED.get();
+    }
+
+    static int chunkOf(long index) {
+        if (index < GROWING_END) {
+            return 63 - Long.numberOfLeadingZeros((index >>> FIRST_SHIFT) + 1);
+        }
+        return GROWING + (int)((index - GROWING_END) >>> MAX_SHIFT);
+    }
+
+    static long startOf(int chunk) {
+        if (chunk <= GROWING) {
+            return ((1L << chunk) - 1) << FIRST_SHIFT;
+        }
+        return GROWING_END + ((long)(chunk - GROWING) << MAX_SHIFT);
+    }
+
+    private static Consumer<ByteBuffer> freeOperation() {
+        try {
+            Class<?> cls = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = cls.getMethod("invokeCleaner", ByteBuffer.class);
+            Field field = cls.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Object unsafe = field.get(null);
+            return buffer -> {
+                try {
+                    invokeCleaner.invoke(unsafe, buffer);
+                } catch (ReflectiveOperationException ignore) {
+                }
+            };
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return buffer -> {};
+        }
+    }
+
+    public long bytes() {
+        return bytes;
+    }
+
+    @Override
+    public void close() {
+        for (int s; (s = users.get()) >= 0; ) {
+            if (users.compareAndSet(s, s | CLOSED)) {
+                if (s == 0) {
+                    free();
+                }
+                return;
+            }
+        }
+    }
+
+    private void free() {
+        for (int k = 0; k < count; k++) {
+            FREE.accept(chunks[k]);
+            chunks[k] = null;
+        }
+        ALLOCATED.addAndGet(-bytes);
+        cur = null;
+        count = 0;
+        size = 0;
+    }
+
+    public boolean isClosed() {
+        return users.get() < 0;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    void acquire() {
+        for (int s; ; ) {
+            if ((s = users.get()) < 0) {
+                throw new IllegalStateException("closed");
+            }
+            if (users.compareAndSet(s, s + 1)) {
+                return;
+            }
+        }
+    }
+
+    ByteBuffer chunk(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return chunks[chunkOf(index)];
+    }
+
+    int lengthOf(int k) {
+        return k == count - 1 ? pos : 1 << Math.min(FIRST_SHIFT + k, MAX_SHIFT);
+    }
+
+    int offsetOf(long index) {
+        return (int)(index - startOf(chunkOf(index))) << elementShift;
+    }
+
+    void release() {
+        if (users.decrementAndGet() == CLOSED) {
+            free();
+        }
+    }
+
+    int reserve() {
+        if (cur == null || pos << elementShift == cur.capacity()) {
+            if (isClosed()) {
+                throw new IllegalStateException("closed");
+            }
+            if (count == chunks.length) {
+                chunks = Arrays.copyOf(chunks, count << 1);
+            }
+            int capacity = 1 << (Math.min(FIRST_SHIFT + count, MAX_SHIFT) + elementShift);
+            cur = ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+            chunks[count++] = cur;
+            pos = 0;
+            bytes += capacity;
+            ALLOCATED.addAndGet(capacity);
+        }
+        size++;
+        return pos++ << elementShift;
+    }
+
+    public static class OfDouble extends OffHeapSeq implements DoubleSeq {
+        public OfDouble() {
+            super(3);
+        }
+
+        public void add(double t) {
+            int i = reserve();
+            cur.putDouble(i, t);
+        }
+
+        public OfDouble addAll(DoubleSeq seq) {
+            acquire();
+            try {
+                seq.consume(this::add);
+            } finally {
+                release();
+            }
+            return this;
+        }
+
+        @Override
+        public void consume(DoubleConsumer consumer) {
+            acquire();
+            try {
+                StopFlag flag = StopFlag.of(consumer);
+                for (int k = 0; k < count; k++) {
+                    ByteBuffer chunk = chunks[k];
+                    for (int i = 0, n = lengthOf(k) << 3; i < n && !flag.isStopped(); i += 8) {
+                        consumer.accept(chunk.getDouble(i));
+                    }
+                }
+            } finally {
+                release();
+            }
+        }
+
+        public double get(long index) {
+            acquire();
+            try {
+                return chunk(index).getDouble(offsetOf(index));
+            } finally {
+                release();
+            }
+        }
+    }
+
+    public static class OfInt extends OffHeapSeq implements IntSeq {
+        public OfInt() {
+            super(2);
+        }
+
+        public void add(int t) {
+            int i = reserve();
+            cur.putInt(i, t);
+        }
+
+        public OfInt addAll(IntSeq seq) {
+            acquire();
+            try {
+                seq.consume(this::add);
+            } finally {
+                release();
+            }
+            return this;
+        }
+
+        @Override
+        public void consume(IntConsumer consumer) {
+            acquire();
+            try {
+                StopFlag flag = StopFlag.of(consumer);
+                for (int k = 0; k < count; k++) {
+                    ByteBuffer chunk = chunks[k];
+                    for (int i = 0, n = lengthOf(k) << 2; i < n && !flag.isStopped(); i += 4) {
+                        consumer.accept(chunk.getInt(i));
+                    }
+                }
+            } finally {
+                release();
+            }
+        }
+
+        public int get(long index) {
+            acquire();
+            try {
+                return chunk(index).getInt(offsetOf(index));
+            } finally {
+                release();
+            }
+        }
+    }
+
+    public static class OfLong extends OffHeapSeq implements LongSeq {
+        public OfLong() {
+            super(3);
+        }
+
+        public void add(long t) {
+            int i = reserve();
+            cur.putLong(i, t);
+        }
+
+        public OfLong addAll(LongSeq seq) {
+            acquire();
+            try {
+                seq.consume(this::add);
+            } finally {
+                release();
+            }
+            return this;
+        }
+
+        @Override
+        public void consume(LongConsumer consumer) {
+            acquire();
+            try {
+                StopFlag flag = StopFlag.of(consumer);
+                for (int k = 0; k < count; k++) {
+                    ByteBuffer chunk = chunks[k];
+                    for (int i = 0, n = lengthOf(k) << 3; i < n && !flag.isStopped(); i += 8) {
+                        consumer.accept(chunk.getLong(i));
+                    }
+                }
+            } finally {
+                release();
+            }
+        }
+
+        public long get(long index) {
+            acquire();
+            try {
+                return chunk(index).getLong(offsetOf(index));
+            } finally {
+                release();
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.github.wolray.seq;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Groups pushed elements into chunks for {@link Seq#parallel(Async)}. Chunks start small and are
+ * resized from the per-element cost measured by the workers so that each chunk takes roughly
+ * {@link #TARGET_NANOS}. At most {@code maxPending} chunks are outstanding at any time. When none
+ * is free the producer first runs the chunks no worker has started yet and then waits through
+ * {@link ForkJoinPool#managedBlock}, so a producer running inside a small or saturated pool does not
+ * deadlock on the workers it waits for. The first failure of a chunk is rethrown to the producer. An optional {@link CancelToken} stops both the source and the chunks that are already
+ * running.
+ *
+ * @author wolray
+ */
+public class ParallelBatch<T> implements Consumer<T> {
+    static final long TARGET_NANOS = 100_000;
+    static final int MAX_SIZE = 1 << 14;
+
+    private final Async async;
+    private final int maxPending;
+    private final Consumer<T> consumer;
+    private final CancelToken token;
+    private final Semaphore pending;
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+    private final ArrayList<Chunk> chunks = new ArrayList<>();
+    private volatile long nanosPerElement;
+    private ArrayList<T> batch;
+    private int size = 1;
+
+    public ParallelBatch(Async async, int maxPending, Consumer<T> consumer) {
+        this(async, maxPending, null, consumer);
+    }
+
+    public ParallelBatch(Async async, int maxPending, CancelToken token, Consumer<T> consumer) {
+        if (maxPending <= 0) {
+            throw new IllegalArgumentException("non-positive maxPending");
+        }
+        this.async = async;
+        this.maxPending = maxPending;
+        this.consumer = consumer;
+        this.token = token;
+        pending = new Semaphore(maxPending);
+    }
+
+    public static int defaultPending() {
+        return Runtime.getRuntime().availableProcessors() * 2;
+    }
+
+    @Override
+    public void accept(T t) {
+        if (token != null) {
+            token.checkpoint();
+        }
+        if (batch == null) {
+            batch = new ArrayList<>(size);
+        }
+        batch.add(t);
+        if (batch.size() >= size) {
+            submit();
+        }
+    }
+
+    public void finish() {
+        if (batch != null) {
+            submit();
+        }
+        chunks.forEach(Chunk::run);
+        acquire(maxPending);
+        pending.release(maxPending);
+        chunks.clear();
+        rethrow();
+    }
+
+    private void submit() {
+        ArrayList<T> list = batch;
+        batch = null;
+        if (!pending.tryAcquire()) {
+            chunks.forEach(Chunk::run);
+            acquire(1);
+        }
+        if (error.get() != null) {
+            pending.release();
+            rethrow();
+        }
+        chunks.removeIf(c -> c.done);
+        Chunk chunk = new Chunk(list);
+        chunks.add(chunk);
+        async.submit(chunk);
+        resize();
+    }
+
+    private void acquire(int permits) {
+        Async.apply(() -> ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+            boolean acquired;
+
+            @Override
+            public boolean block() throws InterruptedException {
+                if (!acquired) {
+                    pending.acquire(permits);
+                    acquired = true;
+                }
+                return true;
+            }
+
+            @Override
+            public boolean isReleasable() {
+                return acquired || (acquired = pending.tryAcquire(permits));
+            }
+        }));
+    }
+
+    private void resize() {
+        long cost = nanosPerElement;
+        if (cost == 0) {
+            size = Math.min(size << 1, MAX_SIZE);
+        } else {
+            size = (int)Math.max(1, Math.min(TARGET_NANOS / cost, MAX_SIZE));
+        }
+    }
+
+    private void rethrow() {
+        Throwable e = error.get();
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException)e;
+        }
+        if (e instanceof Error) {
+            throw (Error)e;
+        }
+        if (e != null) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    class Chunk implements Runnable {
+        final AtomicBoolean started = new AtomicBoolean();
+        ArrayList<T> list;
+        volatile boolean done;
+
+        Chunk(ArrayList<T> list) {
+            this.list = list;
+        }
+
+        @Override
+        public void run() {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            ArrayList<T> list = this.list;
+            this.list = null;
+            try {
+                long start = System.nanoTime();
+                if (token == null) {
+                    list.forEach(consumer);
+                } else {
+                    token.run(() -> {
+                        for (T t : list) {
+                            token.checkpoint();
+                            consumer.accept(t);
+                        }
+                    });
+                }
+                long cost = (System.nanoTime() - start) / list.size();
+                long old = nanosPerElement;
+                nanosPerElement = old == 0 ? Math.max(cost, 1) : (old * 3 + cost) / 4 + 1;
+            } catch (Throwable e) {
+                error.compareAndSet(null, e);
+            } finally {
+                done = true;
+                pending.release();
+            }
+        }
+    }
+}
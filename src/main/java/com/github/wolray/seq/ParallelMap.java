@@ -0,0 +1,116 @@
+package com.github.wolray.seq;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Ordered parallel {@code map} behind {@link Seq#mapParallel(Async, int, Function)}. Each element
+ * is mapped on the async workers while the results wait in a FIFO of slots, so they are emitted in
+ * source order. Once {@code window} elements are in flight the producer blocks on the oldest slot,
+ * which keeps memory bounded and applies backpressure to the source. Waiting goes through
+ * {@link ForkJoinPool#managedBlock} so a producer running inside a pool does not starve its workers,
+ * and a slot no worker has started yet is mapped by the waiting thread itself, so the map keeps
+ * going when the workers share a saturated executor with the producer.
+ *
+ * @author wolray
+ */
+public class ParallelMap<T, E> implements Consumer<T> {
+    private final Async async;
+    private final int window;
+    private final Function<T, E> function;
+    private final Consumer<E> consumer;
+    private final ArrayDeque<Slot> slots;
+
+    public ParallelMap(Async async, int window, Function<T, E> function, Consumer<E> consumer) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("non-positive window");
+        }
+        this.async = async;
+        this.window = window;
+        this.function = function;
+        this.consumer = consumer;
+        slots = new ArrayDeque<>(Math.min(window, 1024));
+    }
+
+    @Override
+    public void accept(T t) {
+        if (slots.size() >= window) {
+            consumer.accept(slots.poll().await());
+        }
+        Slot slot = new Slot(t);
+        slots.offer(slot);
+        async.submit(slot);
+        while (!slots.isEmpty() && slots.peek().done) {
+            consumer.accept(slots.poll().await());
+        }
+    }
+
+    public void finish() {
+        while (!slots.isEmpty()) {
+            consumer.accept(slots.poll().await());
+        }
+    }
+
+    class Slot implements ForkJoinPool.ManagedBlocker, Runnable {
+        final AtomicBoolean started = new AtomicBoolean();
+        T input;
+        volatile boolean done;
+        E result;
+        Throwable error;
+
+        Slot(T input) {
+            this.input = input;
+        }
+
+        @Override
+        public void run() {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                complete(function.apply(input), null);
+            } catch (Throwable e) {
+                complete(null, e);
+            }
+        }
+
+        synchronized void complete(E result, Throwable error) {
+            this.result = result;
+            this.error = error;
+            input = null;
+            done = true;
+            notifyAll();
+        }
+
+        @Override
+        public synchronized boolean block() throws InterruptedException {
+            while (!done) {
+                wait();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return done;
+        }
+
+        E await() {
+            run();
+            Async.apply(() -> ForkJoinPool.managedBlock(this));
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException)error;
+            }
+            if (error instanceof Error) {
+                throw (Error)error;
+            }
+            if (error != null) {
+                throw new RuntimeException(error);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.github.wolray.seq;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Parallel reduction behind {@link Seq#reduceParallel(Async, int, Reducer)}. One worker per
+ * parallelism level drains chunks of {@code batchSize} elements from a queue holding at most as
+ * many chunks as there are workers, and each worker folds them into its own accumulator. Whenever
+ * the queue is full the pushing thread folds the chunk into an accumulator of its own, and a worker
+ * no thread has started yet is run by the pushing thread at the end, so the reduction keeps going
+ * on a saturated executor. Accumulators are combined as their workers finish, so the result does
+ * not keep the encounter order of the source.
+ *
+ * @author wolray
+ */
+public class ParallelReduce<T, E> implements Consumer<T> {
+    private final Async async;
+    private final int batchSize;
+    private final Supplier<E> supplier;
+    private final BiConsumer<E, T> accumulator;
+    private final BinaryOperator<E> combiner;
+    private final ArrayBlockingQueue<ArraySeq<T>> queue;
+    private final ArraySeq<T> end = new ArraySeq<>(0);
+    private final ArraySeq<Worker> workers;
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+    private ArraySeq<T> chunk;
+    private E local;
+    private boolean hasLocal;
+    private E result;
+    private boolean hasResult;
+
+    public ParallelReduce(Async async, int batchSize, Reducer<T, E> reducer) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("non-positive batchSize");
+        }
+        combiner = reducer.combiner();
+        if (combiner == null) {
+            throw new IllegalArgumentException("reducer without combiner");
+        }
+        this.async = async;
+        this.batchSize = batchSize;
+        supplier = reducer.supplier();
+        accumulator = reducer.accumulator();
+        int parallelism = parallelism(async);
+        queue = new ArrayBlockingQueue<>(parallelism);
+        workers = new ArraySeq<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            workers.add(new Worker());
+        }
+    }
+
+    public static int parallelism(Async async) {
+        if (async instanceof Async.ForkJoin) {
+            return ((Async.ForkJoin)async).forkJoinPool.getParallelism();
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    @Override
+    public void accept(T t) {
+        if (chunk == null) {
+            chunk = new ArraySeq<>(batchSize);
+        }
+        chunk.add(t);
+        if (chunk.size() >= batchSize) {
+            ArraySeq<T> full = chunk;
+            chunk = null;
+            rethrow();
+            if (!queue.offer(full)) {
+                accumulate(full);
+            }
+        }
+    }
+
+    public E reduce(Seq<T> seq) {
+        workers.forEach(async::submit);
+        try {
+            seq.consume(this);
+            if (chunk != null) {
+                accumulate(chunk);
+                chunk = null;
+            }
+            for (ArraySeq<T> c; (c = queue.poll()) != null; ) {
+                accumulate(c);
+            }
+        } finally {
+            queue.clear();
+            workers.forEach(w -> queue.offer(end));
+        }
+        workers.forEach(Worker::await);
+        rethrow();
+        if (hasLocal) {
+            merge(local);
+        }
+        return hasResult ? result : supplier.get();
+    }
+
+    private void accumulate(ArraySeq<T> list) {
+        if (!hasLocal) {
+            local = supplier.get();
+            hasLocal = true;
+        }
+        for (T t : list) {
+            accumulator.accept(local, t);
+        }
+    }
+
+    private synchronized void merge(E des) {
+        if (hasResult) {
+            result = combiner.apply(result, des);
+        } else {
+            result = des;
+            hasResult = true;
+        }
+    }
+
+    private void rethrow() {
+        Throwable e = error.get();
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException)e;
+        }
+        if (e instanceof Error) {
+            throw (Error)e;
+        }
+        if (e != null) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    class Worker implements ForkJoinPool.ManagedBlocker, Runnable {
+        final AtomicBoolean started = new AtomicBoolean();
+        volatile boolean done;
+
+        @Override
+        public void run() {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                E des = null;
+                boolean used = false;
+                for (ArraySeq<T> list; (list = queue.take()) != end; ) {
+                    if (!used) {
+                        des = supplier.get();
+                        used = true;
+                    }
+                    for (T t : list) {
+                        accumulator.accept(des, t);
+                    }
+                }
+                if (used) {
+                    merge(des);
+                }
+            } catch (Throwable e) {
+                error.compareAndSet(null, e);
+            } finally {
+                synchronized (this) {
+                    done = true;
+                    notifyAll();
+                }
+            }
+        }
+
+        @Override
+        public synchronized boolean block() throws InterruptedException {
+            while (!done) {
+                wait();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return done;
+        }
+
+        void await() {
+            run();
+            Async.apply(() -> ForkJoinPool.managedBlock(this));
+        }
+    }
+}
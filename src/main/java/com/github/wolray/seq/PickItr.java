@@ -4,30 +4,43 @@ import java.util.Iterator;
 import java.util.NoSuchElementException;
 
 /**
+ * Iterator driven by {@link #pick()}. To signal the end, {@code pick} should return
+ * {@link #end()}; throwing {@link NoSuchElementException} (e.g. {@link Seq#stop()})
+ * is still understood but much slower on hot paths.
+ *
  * @author wolray
  */
 public abstract class PickItr<T> implements Iterator<T> {
+    private static final Object END = new Object();
     private T next;
     private State state = State.Unset;
 
     public abstract T pick();
 
+    @SuppressWarnings("unchecked")
+    protected final T end() {
+        return (T)END;
+    }
+
     @Override
     public boolean hasNext() {
         if (state == State.Unset) {
             try {
                 next = pick();
-                state = State.Cached;
+                state = next != END ? State.Cached : State.Done;
             } catch (NoSuchElementException e) {
                 state = State.Done;
             }
+            if (state == State.Done) {
+                next = null;
+            }
         }
         return state == State.Cached;
     }
 
     @Override
     public T next() {
-        if (state == State.Cached) {
+        if (hasNext()) {
             T res = next;
             next = null;
             state = State.Unset;
@@ -12,6 +12,10 @@ public interface Reducer<T, V> {
     Consumer<V> finisher();
     Supplier<V> supplier();
 
+    default BinaryOperator<V> combiner() {
+        return null;
+    }
+
     static <T> Transducer<T, ?, Double> average(ToDoubleFunction<T> function) {
         return average(function, null);
     }
@@ -31,15 +35,42 @@ public interface Reducer<T, V> {
                 a[1] += 1;
             };
         }
-        return Transducer.of(() -> new double[2], biConsumer, a -> a[1] != 0 ? a[0] / a[1] : 0);
+        return Transducer.of(() -> new double[2], biConsumer, (a, b) -> {
+            a[0] += b[0];
+            a[1] += b[1];
+            return a;
+        }, a -> a[1] != 0 ? a[0] / a[1] : 0);
+    }
+
+    static <T> Transducer<T, ?, ArraySeq<T>> bottomK(int k, Comparator<T> comparator) {
+        return topK(k, comparator.reversed());
+    }
+
+    static <T, V extends Comparable<V>> Transducer<T, ?, ArraySeq<T>> bottomKBy(int k, Function<T, V> function) {
+        return topK(k, Comparator.comparing(function).reversed());
+    }
+
+    static <T> Transducer<T, ?, ArraySeq<T>> bottomKByInt(int k, ToIntFunction<T> function) {
+        return topK(() -> BoundedHeap.ofKey(k, t -> ~(long)function.applyAsInt(t)));
+    }
+
+    static <T> Transducer<T, ?, ArraySeq<T>> bottomKByDouble(int k, ToDoubleFunction<T> function) {
+        return topK(() -> BoundedHeap.ofKey(k, t -> ~BoundedHeap.sortable(function.applyAsDouble(t))));
+    }
+
+    static <T> Transducer<T, ?, ArraySeq<T>> bottomKByLong(int k, ToLongFunction<T> function) {
+        return topK(() -> BoundedHeap.ofKey(k, t -> ~function.applyAsLong(t)));
     }
 
     static <T, C extends Collection<T>> Reducer<T, C> collect(Supplier<C> des) {
-        return of(des, Collection::add);
+        return of(des, Collection::add, null, (a, b) -> {
+            a.addAll(b);
+            return a;
+        });
     }
 
     static <T> Transducer<T, ?, Integer> count() {
-        return Transducer.of(() -> new int[1], (a, t) -> a[0]++, a -> a[0]);
+        return Transducer.of(() -> new int[1], (a, t) -> a[0]++, (a, b) -> new int[]{a[0] + b[0]}, a -> a[0]);
     }
 
     static <T> Transducer<T, ?, Integer> count(Predicate<T> predicate) {
@@ -47,7 +78,7 @@ public interface Reducer<T, V> {
             if (predicate.test(t)) {
                 a[0]++;
             }
-        }, a -> a[0]);
+        }, (a, b) -> new int[]{a[0] + b[0]}, a -> a[0]);
     }
 
     static <T> Transducer<T, ?, Integer> countNot(Predicate<T> predicate) {
@@ -64,7 +95,7 @@ public interface Reducer<T, V> {
             if (predicate.test(t)) {
                 accumulator.accept(v, t);
             }
-        }, reducer.finisher());
+        }, reducer.finisher(), reducer.combiner());
     }
 
     static <T, V, E> Transducer<T, V, E> filtering(Predicate<T> predicate, Transducer<T, V, E> transducer) {
@@ -75,17 +106,42 @@ public interface Reducer<T, V> {
         Supplier<V> supplier = reducer.supplier();
         BiConsumer<V, T> accumulator = reducer.accumulator();
         Consumer<V> finisher = reducer.finisher();
+        BinaryOperator<V> combiner = reducer.combiner();
         return of(SeqMap::hash, (m, t) ->
                 accumulator.accept(m.computeIfAbsent(toKey.apply(t), k -> supplier.get()), t),
-            finisher == null ? null : m -> m.justValues().consume(finisher));
+            finisher == null ? null : m -> m.justValues().consume(finisher),
+            combiner == null ? null : (m1, m2) -> {
+                m2.forEach((k, v) -> m1.merge(k, v, combiner));
+                return m1;
+            });
     }
 
     static <T, K, V, E> Transducer<T, ?, SeqMap<K, E>> groupBy(Function<T, K> toKey, Transducer<T, V, E> transducer) {
         return Transducer.of(groupBy(toKey, transducer.reducer()), m -> m.replaceValue(transducer.transformer()));
     }
 
+    static <T, K> Transducer<T, ?, SeqMap<K, ArraySeq<T>>> groupTopN(Function<T, K> toKey, int n, Comparator<T> comparator) {
+        return groupBy(toKey, topK(n, comparator));
+    }
+
+    static <T, K, V extends Comparable<V>> Transducer<T, ?, SeqMap<K, ArraySeq<T>>> groupTopNBy(Function<T, K> toKey, int n, Function<T, V> function) {
+        return groupBy(toKey, topKBy(n, function));
+    }
+
+    static <T, K> Transducer<T, ?, SeqMap<K, ArraySeq<T>>> groupTopNByInt(Function<T, K> toKey, int n, ToIntFunction<T> function) {
+        return groupBy(toKey, topKByInt(n, function));
+    }
+
+    static <T, K> Transducer<T, ?, SeqMap<K, ArraySeq<T>>> groupTopNByDouble(Function<T, K> toKey, int n, ToDoubleFunction<T> function) {
+        return groupBy(toKey, topKByDouble(n, function));
+    }
+
+    static <T, K> Transducer<T, ?, SeqMap<K, ArraySeq<T>>> groupTopNByLong(Function<T, K> toKey, int n, ToLongFunction<T> function) {
+        return groupBy(toKey, topKByLong(n, function));
+    }
+
     static <T> Transducer<T, ?, String> join(String sep, Function<T, String> function) {
-        return Transducer.of(() -> new StringJoiner(sep), (j, t) -> j.add(function.apply(t)), StringJoiner::toString);
+        return Transducer.of(() -> new StringJoiner(sep), (j, t) -> j.add(function.apply(t)), StringJoiner::merge, StringJoiner::toString);
     }
 
     static <T, E> Reducer<T, ArraySeq<E>> mapping(Function<T, E> mapper) {
@@ -97,7 +153,7 @@ public interface Reducer<T, V> {
         return of(reducer.supplier(), (v, t) -> {
             E e = mapper.apply(t);
             accumulator.accept(v, e);
-        }, reducer.finisher());
+        }, reducer.finisher(), reducer.combiner());
     }
 
     static <T, R, V, E> Transducer<T, V, E> mapping(Function<T, R> mapper, Transducer<R, V, E> transducer) {
@@ -126,7 +182,7 @@ public interface Reducer<T, V> {
             if (p.second == null || p.second.compareTo(v) < 0) {
                 p.set(t, v);
             }
-        });
+        }, null, (p1, p2) -> p2.second != null && (p1.second == null || p1.second.compareTo(p2.second) < 0) ? p2 : p1);
     }
 
     static <T> Reducer<T, IntPair<T>> maxByInt(ToIntFunction<T> function) {
@@ -136,7 +192,7 @@ public interface Reducer<T, V> {
                 p.intVal = v;
                 p.it = t;
             }
-        });
+        }, null, (p1, p2) -> p2.it != null && (p1.it == null || p1.intVal < p2.intVal) ? p2 : p1);
     }
 
     static <T> Reducer<T, DoublePair<T>> maxByDouble(ToDoubleFunction<T> function) {
@@ -146,7 +202,7 @@ public interface Reducer<T, V> {
                 p.doubleVal = v;
                 p.it = t;
             }
-        });
+        }, null, (p1, p2) -> p2.it != null && (p1.it == null || p1.doubleVal < p2.doubleVal) ? p2 : p1);
     }
 
     static <T> Reducer<T, LongPair<T>> maxByLong(ToLongFunction<T> function) {
@@ -156,7 +212,7 @@ public interface Reducer<T, V> {
                 p.longVal = v;
                 p.it = t;
             }
-        });
+        }, null, (p1, p2) -> p2.it != null && (p1.it == null || p1.longVal < p2.longVal) ? p2 : p1);
     }
 
     static <T> Transducer<T, ?, T> min(Comparator<T> comparator) {
@@ -181,7 +237,7 @@ public interface Reducer<T, V> {
             if (p.second == null || p.second.compareTo(v) > 0) {
                 p.set(t, v);
             }
-        });
+        }, null, (p1, p2) -> p2.second != null && (p1.second == null || p1.second.compareTo(p2.second) > 0) ? p2 : p1);
     }
 
     static <T> Reducer<T, IntPair<T>> minByInt(ToIntFunction<T> function) {
@@ -191,7 +247,7 @@ public interface Reducer<T, V> {
                 p.intVal = v;
                 p.it = t;
             }
-        });
+        }, null, (p1, p2) -> p2.it != null && (p1.it == null || p1.intVal > p2.intVal) ? p2 : p1);
     }
 
     static <T> Reducer<T, DoublePair<T>> minByDouble(ToDoubleFunction<T> function) {
@@ -201,7 +257,7 @@ public interface Reducer<T, V> {
                 p.doubleVal = v;
                 p.it = t;
             }
-        });
+        }, null, (p1, p2) -> p2.it != null && (p1.it == null || p1.doubleVal > p2.doubleVal) ? p2 : p1);
     }
 
     static <T> Reducer<T, LongPair<T>> minByLong(ToLongFunction<T> function) {
@@ -211,7 +267,7 @@ public interface Reducer<T, V> {
                 p.longVal = v;
                 p.it = t;
             }
-        });
+        }, null, (p1, p2) -> p2.it != null && (p1.it == null || p1.longVal > p2.longVal) ? p2 : p1);
     }
 
     static <T, V> Reducer<T, V> of(Supplier<V> supplier, BiConsumer<V, T> accumulator) {
@@ -219,6 +275,10 @@ public interface Reducer<T, V> {
     }
 
     static <T, V> Reducer<T, V> of(Supplier<V> supplier, BiConsumer<V, T> accumulator, Consumer<V> finisher) {
+        return of(supplier, accumulator, finisher, null);
+    }
+
+    static <T, V> Reducer<T, V> of(Supplier<V> supplier, BiConsumer<V, T> accumulator, Consumer<V> finisher, BinaryOperator<V> combiner) {
         return new Reducer<T, V>() {
             @Override
             public Supplier<V> supplier() {
@@ -234,6 +294,11 @@ public interface Reducer<T, V> {
             public Consumer<V> finisher() {
                 return finisher;
             }
+
+            @Override
+            public BinaryOperator<V> combiner() {
+                return combiner;
+            }
         };
     }
 
@@ -245,11 +310,16 @@ public interface Reducer<T, V> {
         BiConsumer<V, T> accumulator = reducer.accumulator();
         Supplier<V> supplier = reducer.supplier();
         Consumer<V> finisher = reducer.finisher();
+        BinaryOperator<V> combiner = reducer.combiner();
         return of(() -> new Pair<>(supplier.get(), supplier.get()),
             (p, t) -> accumulator.accept(predicate.test(t) ? p.first : p.second, t),
             finisher == null ? null : p -> {
                 finisher.accept(p.first);
                 finisher.accept(p.second);
+            },
+            combiner == null ? null : (p1, p2) -> {
+                p1.set(combiner.apply(p1.first, p2.first), combiner.apply(p1.second, p2.second));
+                return p1;
             });
     }
 
@@ -275,6 +345,30 @@ public interface Reducer<T, V> {
         return sort(Comparator.comparing(function));
     }
 
+    static <T> Reducer<T, ArraySeq<T>> sortByDouble(ToDoubleFunction<T> function) {
+        return Reducer.<T>toList().then(ts -> SortUtil.sortByDouble(ts, function, false));
+    }
+
+    static <T> Reducer<T, ArraySeq<T>> sortByDoubleDesc(ToDoubleFunction<T> function) {
+        return Reducer.<T>toList().then(ts -> SortUtil.sortByDouble(ts, function, true));
+    }
+
+    static <T> Reducer<T, ArraySeq<T>> sortByInt(ToIntFunction<T> function) {
+        return Reducer.<T>toList().then(ts -> SortUtil.sortByInt(ts, function, false));
+    }
+
+    static <T> Reducer<T, ArraySeq<T>> sortByIntDesc(ToIntFunction<T> function) {
+        return Reducer.<T>toList().then(ts -> SortUtil.sortByInt(ts, function, true));
+    }
+
+    static <T> Reducer<T, ArraySeq<T>> sortByLong(ToLongFunction<T> function) {
+        return Reducer.<T>toList().then(ts -> SortUtil.sortByLong(ts, function, false));
+    }
+
+    static <T> Reducer<T, ArraySeq<T>> sortByLongDesc(ToLongFunction<T> function) {
+        return Reducer.<T>toList().then(ts -> SortUtil.sortByLong(ts, function, true));
+    }
+
     static <T> Reducer<T, ArraySeq<T>> sortDesc() {
         return sort(Collections.reverseOrder());
     }
@@ -288,43 +382,55 @@ public interface Reducer<T, V> {
     }
 
     static <T> Transducer<T, ?, Double> sum(ToDoubleFunction<T> function) {
-        return Transducer.of(() -> new double[1], (a, t) -> a[0] += function.applyAsDouble(t), a -> a[0]);
+        return Transducer.of(() -> new double[1], (a, t) -> a[0] += function.applyAsDouble(t),
+            (a, b) -> new double[]{a[0] + b[0]}, a -> a[0]);
     }
 
     static <T> Transducer<T, ?, Integer> sumInt(ToIntFunction<T> function) {
-        return Transducer.of(() -> new int[1], (a, t) -> a[0] += function.applyAsInt(t), a -> a[0]);
+        return Transducer.of(() -> new int[1], (a, t) -> a[0] += function.applyAsInt(t),
+            (a, b) -> new int[]{a[0] + b[0]}, a -> a[0]);
     }
 
     static <T> Transducer<T, ?, Long> sumLong(ToLongFunction<T> function) {
-        return Transducer.of(() -> new long[1], (a, t) -> a[0] += function.applyAsLong(t), a -> a[0]);
+        return Transducer.of(() -> new long[1], (a, t) -> a[0] += function.applyAsLong(t),
+            (a, b) -> new long[]{a[0] + b[0]}, a -> a[0]);
     }
 
     static <T> Reducer<T, BatchedSeq<T>> toBatched() {
-        return of(BatchedSeq::new, BatchedSeq::add);
+        return of(BatchedSeq::new, BatchedSeq::add, null, (a, b) -> {
+            a.addAll(b);
+            return a;
+        });
     }
 
     static <T> Reducer<T, ConcurrentSeq<T>> toConcurrent() {
-        return of(ConcurrentSeq::new, ConcurrentSeq::add);
+        return collect(ConcurrentSeq::new);
     }
 
     static <T> Reducer<T, LinkedSeq<T>> toLinked() {
-        return of(LinkedSeq::new, LinkedSeq::add);
+        return collect(LinkedSeq::new);
     }
 
     static <T> Reducer<T, ArraySeq<T>> toList() {
-        return of(ArraySeq::new, ArraySeq::add);
+        return collect(ArraySeq::new);
     }
 
     static <T> Reducer<T, ArraySeq<T>> toList(int initialCapacity) {
-        return of(() -> new ArraySeq<>(initialCapacity), ArraySeq::add);
+        return collect(() -> new ArraySeq<>(initialCapacity));
     }
 
     static <T, K, V> Reducer<T, SeqMap<K, V>> toMap(Function<T, K> toKey, Function<T, V> toValue) {
-        return of(SeqMap::hash, (m, t) -> m.put(toKey.apply(t), toValue.apply(t)));
+        return of(SeqMap::hash, (m, t) -> m.put(toKey.apply(t), toValue.apply(t)), null, (m1, m2) -> {
+            m1.putAll(m2);
+            return m1;
+        });
     }
 
     static <T, K, V> Reducer<T, SeqMap<K, V>> toMap(Supplier<Map<K, V>> mapSupplier, Function<T, K> toKey, Function<T, V> toValue) {
-        return of(() -> SeqMap.of(mapSupplier.get()), (m, t) -> m.put(toKey.apply(t), toValue.apply(t)));
+        return of(() -> SeqMap.of(mapSupplier.get()), (m, t) -> m.put(toKey.apply(t), toValue.apply(t)), null, (m1, m2) -> {
+            m1.putAll(m2);
+            return m1;
+        });
     }
 
     static <T, K> Reducer<T, SeqMap<K, T>> toMapBy(Function<T, K> toKey) {
@@ -332,7 +438,10 @@ public interface Reducer<T, V> {
     }
 
     static <T, K> Reducer<T, SeqMap<K, T>> toMapBy(Supplier<Map<K, T>> mapSupplier, Function<T, K> toKey) {
-        return of(() -> SeqMap.of(mapSupplier.get()), (m, t) -> m.put(toKey.apply(t), t));
+        return of(() -> SeqMap.of(mapSupplier.get()), (m, t) -> m.put(toKey.apply(t), t), null, (m1, m2) -> {
+            m1.putAll(m2);
+            return m1;
+        });
     }
 
     static <T, V> Reducer<T, SeqMap<T, V>> toMapWith(Function<T, V> toValue) {
@@ -340,19 +449,46 @@ public interface Reducer<T, V> {
     }
 
     static <T, V> Reducer<T, SeqMap<T, V>> toMapWith(Supplier<Map<T, V>> mapSupplier, Function<T, V> toValue) {
-        return of(() -> SeqMap.of(mapSupplier.get()), (m, t) -> m.put(t, toValue.apply(t)));
+        return of(() -> SeqMap.of(mapSupplier.get()), (m, t) -> m.put(t, toValue.apply(t)), null, (m1, m2) -> {
+            m1.putAll(m2);
+            return m1;
+        });
     }
 
     static <T> Reducer<T, SeqSet<T>> toSet() {
-        return of(LinkedSeqSet::new, Set::add);
+        return collect(LinkedSeqSet::new);
     }
 
     static <T> Reducer<T, SeqSet<T>> toSet(int initialCapacity) {
-        return of(() -> new LinkedSeqSet<>(initialCapacity), Set::add);
+        return collect(() -> new LinkedSeqSet<>(initialCapacity));
+    }
+
+    static <T> Transducer<T, BoundedHeap<T>, ArraySeq<T>> topK(Supplier<BoundedHeap<T>> supplier) {
+        return Transducer.of(supplier, BoundedHeap::add, BoundedHeap::merge, BoundedHeap::toList);
+    }
+
+    static <T> Transducer<T, ?, ArraySeq<T>> topK(int k, Comparator<T> comparator) {
+        return topK(() -> BoundedHeap.of(k, comparator));
+    }
+
+    static <T, V extends Comparable<V>> Transducer<T, ?, ArraySeq<T>> topKBy(int k, Function<T, V> function) {
+        return topK(k, Comparator.comparing(function));
+    }
+
+    static <T> Transducer<T, ?, ArraySeq<T>> topKByInt(int k, ToIntFunction<T> function) {
+        return topK(() -> BoundedHeap.ofKey(k, function::applyAsInt));
+    }
+
+    static <T> Transducer<T, ?, ArraySeq<T>> topKByDouble(int k, ToDoubleFunction<T> function) {
+        return topK(() -> BoundedHeap.ofKey(k, t -> BoundedHeap.sortable(function.applyAsDouble(t))));
+    }
+
+    static <T> Transducer<T, ?, ArraySeq<T>> topKByLong(int k, ToLongFunction<T> function) {
+        return topK(() -> BoundedHeap.ofKey(k, function));
     }
 
     default Reducer<T, V> then(Consumer<V> action) {
         Consumer<V> finisher = finisher();
-        return of(supplier(), accumulator(), finisher == null ? action : finisher.andThen(action));
+        return of(supplier(), accumulator(), finisher == null ? action : finisher.andThen(action), combiner());
     }
 }
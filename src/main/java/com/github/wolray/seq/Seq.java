@@ -53,9 +53,10 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
 
     static <T> Seq<T> gen(T seed, UnaryOperator<T> operator) {
         return c -> {
+            StopFlag flag = StopFlag.of(c);
             T t = seed;
             c.accept(t);
-            while (true) {
+            while (!flag.isStopped()) {
                 c.accept(t = operator.apply(t));
             }
         };
@@ -63,10 +64,14 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
 
     static <T> Seq<T> gen(T seed1, T seed2, BinaryOperator<T> operator) {
         return c -> {
+            StopFlag flag = StopFlag.of(c);
             T t1 = seed1, t2 = seed2;
             c.accept(t1);
+            if (flag.isStopped()) {
+                return;
+            }
             c.accept(t2);
-            while (true) {
+            while (!flag.isStopped()) {
                 c.accept(t2 = operator.apply(t1, t1 = t2));
             }
         };
@@ -88,6 +93,28 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
         };
     }
 
+    static <T> Seq<T> mergeSorted(Comparator<T> comparator, List<Seq<T>> seqs) {
+        return new SortedMerge<>(seqs, comparator, null);
+    }
+
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    static <T> Seq<T> mergeSorted(Comparator<T> comparator, Seq<T>... seqs) {
+        return mergeSorted(comparator, Arrays.asList(seqs));
+    }
+
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    static <T> Seq<T> mergeSorted(Comparator<T> comparator, BinaryOperator<T> combiner, Seq<T>... seqs) {
+        return new SortedMerge<>(Arrays.asList(seqs), comparator, combiner);
+    }
+
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    static <T> Seq<T> mergeSortedDistinct(Comparator<T> comparator, Seq<T>... seqs) {
+        return mergeSorted(comparator, (a, b) -> a, seqs);
+    }
+
     @SuppressWarnings("unchecked")
     static <T> Consumer<T> nothing() {
         return (Consumer<T>)Empty.nothing;
@@ -154,7 +181,7 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
             @Override
             public T pick() {
                 T t = supplier.get();
-                return t != null ? t : Seq.stop();
+                return t != null ? t : end();
             }
         };
     }
@@ -207,7 +234,21 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
     }
 
     default ItrSeq<T> asIterable() {
-        return toBatched();
+        return asIterable(Generator.defaultAsync());
+    }
+
+    default ItrSeq<T> asIterable(Async async) {
+        return new ItrSeq<T>() {
+            @Override
+            public Generator<T> iterator() {
+                return new Generator<>(Seq.this, async, Generator.BATCH_SIZE, Generator.BUFFER);
+            }
+
+            @Override
+            public void consume(Consumer<T> consumer) {
+                Seq.this.consume(consumer);
+            }
+        };
     }
 
     default double average(ToDoubleFunction<T> function) {
@@ -218,10 +259,38 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
         return reduce(Reducer.average(function, weightFunction));
     }
 
+    default ArraySeq<T> bottomK(int k, Comparator<T> comparator) {
+        return reduce(Reducer.bottomK(k, comparator));
+    }
+
+    default <E extends Comparable<E>> ArraySeq<T> bottomKBy(int k, Function<T, E> function) {
+        return reduce(Reducer.bottomKBy(k, function));
+    }
+
+    default ArraySeq<T> bottomKByInt(int k, ToIntFunction<T> function) {
+        return reduce(Reducer.bottomKByInt(k, function));
+    }
+
+    default ArraySeq<T> bottomKByDouble(int k, ToDoubleFunction<T> function) {
+        return reduce(Reducer.bottomKByDouble(k, function));
+    }
+
+    default ArraySeq<T> bottomKByLong(int k, ToLongFunction<T> function) {
+        return reduce(Reducer.bottomKByLong(k, function));
+    }
+
     default SizedSeq<T> cache() {
         return toBatched();
     }
 
+    default SpillSeq<T> cache(long maxElements, Serializer<T> serializer) {
+        return reduce(new SpillSeq<>(maxElements, serializer), SpillSeq::add);
+    }
+
+    default SpillSeq<T> cache(long maxWeight, ToLongFunction<T> weigher, Serializer<T> serializer) {
+        return reduce(new SpillSeq<>(maxWeight, weigher, serializer), SpillSeq::add);
+    }
+
     default Seq<ArraySeq<T>> chunked(int size) {
         return chunked(size, Reducer.toList(size));
     }
@@ -366,11 +435,11 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
     }
 
     default Seq<T> filter(Predicate<T> predicate) {
-        return predicate == null ? this : c -> consume(t -> {
+        return predicate == null ? this : c -> consume(StopFlag.wrap(c, t -> {
             if (predicate.test(t)) {
                 c.accept(t);
             }
-        });
+        }));
     }
 
     default Seq<T> filter(int n, Predicate<T> predicate) {
@@ -398,11 +467,11 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
     }
 
     default <E> Seq<E> filterInstance(Class<E> cls) {
-        return c -> consume(t -> {
+        return c -> consume(StopFlag.wrap(c, t -> {
             if (cls.isInstance(t)) {
                 c.accept(cls.cast(t));
             }
-        });
+        }));
     }
 
     default Seq<T> filterNot(Predicate<T> predicate) {
@@ -423,10 +492,13 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
 
     default Optional<T> find(Predicate<T> predicate) {
         Mutable<T> m = new Mutable<>(null);
-        consumeTillStop(t -> {
-            if (predicate.test(t)) {
-                m.set(t);
-                stop();
+        consumeTillStop(new StopFlag.ForObj<T>(null) {
+            @Override
+            protected void onAccept(T t) {
+                if (predicate.test(t)) {
+                    m.set(t);
+                    stop();
+                }
             }
         });
         return m.toOptional();
@@ -443,9 +515,12 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
 
     default T first() {
         Mutable<T> m = new Mutable<>(null);
-        consumeTillStop(t -> {
-            m.it = t;
-            stop();
+        consumeTillStop(new StopFlag.ForObj<T>(null) {
+            @Override
+            protected void onAccept(T t) {
+                m.it = t;
+                stop();
+            }
         });
         return m.it;
     }
@@ -522,6 +597,64 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
         return reduce(Reducer.groupBy(toKey, transducer));
     }
 
+    default <K> Seq2<K, ArraySeq<T>> groupByAdjacent(Function<T, K> toKey) {
+        return groupByAdjacent(toKey, Reducer.toList());
+    }
+
+    default <K, V> Seq2<K, V> groupByAdjacent(Function<T, K> toKey, Reducer<T, V> reducer) {
+        Supplier<V> supplier = reducer.supplier();
+        BiConsumer<V, T> accumulator = reducer.accumulator();
+        Consumer<V> finisher = reducer.finisher();
+        return c -> {
+            BoolPair<Pair<K, V>> open = new BoolPair<>(false, new Pair<>(null, null));
+            Pair<K, V> group = open.it;
+            consume(t -> {
+                K k = toKey.apply(t);
+                if (!open.flag || !Objects.equals(group.first, k)) {
+                    if (open.flag) {
+                        if (finisher != null) {
+                            finisher.accept(group.second);
+                        }
+                        c.accept(group.first, group.second);
+                    }
+                    group.set(k, supplier.get());
+                    open.flag = true;
+                }
+                accumulator.accept(group.second, t);
+            });
+            if (open.flag) {
+                if (finisher != null) {
+                    finisher.accept(group.second);
+                }
+                c.accept(group.first, group.second);
+            }
+        };
+    }
+
+    default <K, V, E> Seq2<K, E> groupByAdjacent(Function<T, K> toKey, Transducer<T, V, E> transducer) {
+        return groupByAdjacent(toKey, transducer.reducer()).mapValue(transducer.transformer());
+    }
+
+    default <K> SeqMap<K, ArraySeq<T>> groupTopN(Function<T, K> toKey, int n, Comparator<T> comparator) {
+        return reduce(Reducer.groupTopN(toKey, n, comparator));
+    }
+
+    default <K, V extends Comparable<V>> SeqMap<K, ArraySeq<T>> groupTopNBy(Function<T, K> toKey, int n, Function<T, V> function) {
+        return reduce(Reducer.groupTopNBy(toKey, n, function));
+    }
+
+    default <K> SeqMap<K, ArraySeq<T>> groupTopNByInt(Function<T, K> toKey, int n, ToIntFunction<T> function) {
+        return reduce(Reducer.groupTopNByInt(toKey, n, function));
+    }
+
+    default <K> SeqMap<K, ArraySeq<T>> groupTopNByDouble(Function<T, K> toKey, int n, ToDoubleFunction<T> function) {
+        return reduce(Reducer.groupTopNByDouble(toKey, n, function));
+    }
+
+    default <K> SeqMap<K, ArraySeq<T>> groupTopNByLong(Function<T, K> toKey, int n, ToLongFunction<T> function) {
+        return reduce(Reducer.groupTopNByLong(toKey, n, function));
+    }
+
     default String join(String sep) {
         return join(sep, Object::toString);
     }
@@ -570,7 +703,7 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
     }
 
     default <E> Seq<E> map(Function<T, E> function) {
-        return c -> consume(t -> c.accept(function.apply(t)));
+        return c -> consume(StopFlag.wrap(c, t -> c.accept(function.apply(t))));
     }
 
     default <E> Seq<E> map(Function<T, E> function, int n, Function<T, E> substitute) {
@@ -592,20 +725,32 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
     }
 
     default <E> Seq<E> mapMaybe(Function<T, E> function) {
-        return c -> consume(t -> {
+        return c -> consume(StopFlag.wrap(c, t -> {
             if (t != null) {
                 c.accept(function.apply(t));
             }
-        });
+        }));
     }
 
     default <E> Seq<E> mapNotNull(Function<T, E> function) {
-        return c -> consume(t -> {
+        return c -> consume(StopFlag.wrap(c, t -> {
             E e = function.apply(t);
             if (e != null) {
                 c.accept(e);
             }
-        });
+        }));
+    }
+
+    default <E> Seq<E> mapParallel(int window, Function<T, E> function) {
+        return mapParallel(Async.common(), window, function);
+    }
+
+    default <E> Seq<E> mapParallel(Async async, int window, Function<T, E> function) {
+        return c -> {
+            ParallelMap<T, E> map = new ParallelMap<>(async, window, function, c);
+            consume(map);
+            map.finish();
+        };
     }
 
     default Seq2<T, T> mapPair(boolean overlapping) {
@@ -672,8 +817,16 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
         return mapSub(first::equals, last::equals, reducer);
     }
 
+    default DoubleSeq mapToDouble(ToDoubleFunction<T> function) {
+        return c -> consume(StopFlag.wrap(c, t -> c.accept(function.applyAsDouble(t))));
+    }
+
     default IntSeq mapToInt(ToIntFunction<T> function) {
-        return c -> consume(t -> c.accept(function.applyAsInt(t)));
+        return c -> consume(StopFlag.wrap(c, t -> c.accept(function.applyAsInt(t))));
+    }
+
+    default LongSeq mapToLong(ToLongFunction<T> function) {
+        return c -> consume(StopFlag.wrap(c, t -> c.accept(function.applyAsLong(t))));
     }
 
     default T max(Comparator<T> comparator) {
@@ -697,7 +850,7 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
     }
 
     default Seq<T> onEach(Consumer<T> consumer) {
-        return c -> consume(consumer.andThen(c));
+        return c -> consume(StopFlag.wrap(c, consumer.andThen(c)));
     }
 
     default Seq<T> onEach(int n, Consumer<T> consumer) {
@@ -746,6 +899,26 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
     }
 
     default Seq<T> parallel(Async async) {
+        return parallel(async, ParallelBatch.defaultPending());
+    }
+
+    default Seq<T> parallel(Async async, int maxPending) {
+        return c -> {
+            ParallelBatch<T> batch = new ParallelBatch<>(async, maxPending, c);
+            consume(batch);
+            batch.finish();
+        };
+    }
+
+    default Seq<T> parallel(Async async, int maxPending, CancelToken token) {
+        return c -> {
+            ParallelBatch<T> batch = new ParallelBatch<>(async, maxPending, token, c);
+            consumeTillStop(batch);
+            batch.finish();
+        };
+    }
+
+    default Seq<T> parallelEach(Async async) {
         return c -> async.joinAll(map(t -> () -> c.accept(t)));
     }
 
@@ -757,6 +930,73 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
         return c -> consume(t -> async.submit(() -> c.accept(t)));
     }
 
+    default <E extends Comparable<E>> ArraySeq<T> parallelSortBy(Function<T, E> function) {
+        return parallelSortWith(Comparator.comparing(function));
+    }
+
+    default <E extends Comparable<E>> ArraySeq<T> parallelSortByDesc(Function<T, E> function) {
+        return parallelSortWith(Comparator.comparing(function).reversed());
+    }
+
+    default ArraySeq<T> parallelSortByDouble(ToDoubleFunction<T> function) {
+        ArraySeq<T> list = toList();
+        SortUtil.parallelSortByDouble(list, function, false);
+        return list;
+    }
+
+    default ArraySeq<T> parallelSortByDoubleDesc(ToDoubleFunction<T> function) {
+        ArraySeq<T> list = toList();
+        SortUtil.parallelSortByDouble(list, function, true);
+        return list;
+    }
+
+    default ArraySeq<T> parallelSortByInt(ToIntFunction<T> function) {
+        ArraySeq<T> list = toList();
+        SortUtil.parallelSortByInt(list, function, false);
+        return list;
+    }
+
+    default ArraySeq<T> parallelSortByIntDesc(ToIntFunction<T> function) {
+        ArraySeq<T> list = toList();
+        SortUtil.parallelSortByInt(list, function, true);
+        return list;
+    }
+
+    default ArraySeq<T> parallelSortByLong(ToLongFunction<T> function) {
+        ArraySeq<T> list = toList();
+        SortUtil.parallelSortByLong(list, function, false);
+        return list;
+    }
+
+    default ArraySeq<T> parallelSortByLongDesc(ToLongFunction<T> function) {
+        ArraySeq<T> list = toList();
+        SortUtil.parallelSortByLong(list, function, true);
+        return list;
+    }
+
+    default ArraySeq<T> parallelSortWith(Comparator<T> comparator) {
+        ArraySeq<T> list = toList();
+        if (list.size() < SortUtil.PARALLEL_THRESHOLD) {
+            list.sort(comparator);
+            return list;
+        }
+        @SuppressWarnings("unchecked")
+        T[] a = (T[])list.toArray();
+        Arrays.parallelSort(a, comparator);
+        for (int i = 0; i < a.length; i++) {
+            list.set(i, a[i]);
+        }
+        return list;
+    }
+
+    default ArraySeq<T> parallelSorted() {
+        return parallelSortWith(null);
+    }
+
+    default ArraySeq<T> parallelSortedDesc() {
+        return parallelSortWith(Collections.reverseOrder());
+    }
+
     default Seq<T> partial(int n, Consumer<T> substitute) {
         return c -> consume(c, n, substitute);
     }
@@ -801,6 +1041,27 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
         return transformer.apply(reduce(reducer));
     }
 
+    default <E> E reduceParallel(Async async, Reducer<T, E> reducer) {
+        return reduceParallel(async, 1024, reducer);
+    }
+
+    default <E> E reduceParallel(Async async, int batchSize, Reducer<T, E> reducer) {
+        E des = new ParallelReduce<>(async, batchSize, reducer).reduce(this);
+        Consumer<E> finisher = reducer.finisher();
+        if (finisher != null) {
+            finisher.accept(des);
+        }
+        return des;
+    }
+
+    default <E, V> E reduceParallel(Async async, Transducer<T, V, E> transducer) {
+        return reduceParallel(async, 1024, transducer);
+    }
+
+    default <E, V> E reduceParallel(Async async, int batchSize, Transducer<T, V, E> transducer) {
+        return transducer.transformer().apply(reduceParallel(async, batchSize, transducer.reducer()));
+    }
+
     default Seq<T> replace(int n, UnaryOperator<T> operator) {
         return c -> consume(c, n, t -> c.accept(operator.apply(t)));
     }
@@ -825,6 +1086,10 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
         return async.toShared(buffer, delay, this);
     }
 
+    default MulticastRing<T> shareIn(int buffer, boolean delay, Async async, CancelToken token) {
+        return async.toShared(buffer, delay, this, token);
+    }
+
     default int sizeOrDefault() {
         return 10;
     }
@@ -837,6 +1102,42 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
         return sortWith(Comparator.comparing(function).reversed());
     }
 
+    default ArraySeq<T> sortByDouble(ToDoubleFunction<T> function) {
+        ArraySeq<T> list = toList();
+        SortUtil.sortByDouble(list, function, false);
+        return list;
+    }
+
+    default ArraySeq<T> sortByDoubleDesc(ToDoubleFunction<T> function) {
+        ArraySeq<T> list = toList();
+        SortUtil.sortByDouble(list, function, true);
+        return list;
+    }
+
+    default ArraySeq<T> sortByInt(ToIntFunction<T> function) {
+        ArraySeq<T> list = toList();
+        SortUtil.sortByInt(list, function, false);
+        return list;
+    }
+
+    default ArraySeq<T> sortByIntDesc(ToIntFunction<T> function) {
+        ArraySeq<T> list = toList();
+        SortUtil.sortByInt(list, function, true);
+        return list;
+    }
+
+    default ArraySeq<T> sortByLong(ToLongFunction<T> function) {
+        ArraySeq<T> list = toList();
+        SortUtil.sortByLong(list, function, false);
+        return list;
+    }
+
+    default ArraySeq<T> sortByLongDesc(ToLongFunction<T> function) {
+        ArraySeq<T> list = toList();
+        SortUtil.sortByLong(list, function, true);
+        return list;
+    }
+
     default <E extends Comparable<E>> Seq<T> sortCached(Function<T, E> function) {
         return map(t -> new Pair<>(t, function.apply(t)))
             .sortBy(p -> p.second)
@@ -849,6 +1150,14 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
             .map(p -> p.first);
     }
 
+    default Seq<T> sortExternal(Comparator<T> comparator, Serializer<T> serializer) {
+        return sortExternal(comparator, serializer, ExternalSort.RUN_SIZE, ExternalSort.FAN_IN);
+    }
+
+    default Seq<T> sortExternal(Comparator<T> comparator, Serializer<T> serializer, int runSize, int fanIn) {
+        return new ExternalSort<>(this, comparator, serializer, runSize, fanIn);
+    }
+
     default ArraySeq<T> sortWith(Comparator<T> comparator) {
         ArraySeq<T> list = toList();
         list.sort(comparator);
@@ -871,6 +1180,10 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
         return async.toState(delay, this);
     }
 
+    default StateSlot<T> stateIn(boolean delay, Async async, CancelToken token) {
+        return async.toState(delay, this, token);
+    }
+
     default double sum(ToDoubleFunction<T> function) {
         return reduce(Reducer.sum(function));
     }
@@ -884,23 +1197,28 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
     }
 
     default Seq<T> take(int n) {
-        return n <= 0 ? empty() : c -> {
-            int[] i = {n};
-            consumeTillStop(t -> {
+        return n <= 0 ? empty() : c -> consumeTillStop(new StopFlag.ForObj<T>(c) {
+            int i = n;
+
+            @Override
+            protected void onAccept(T t) {
                 c.accept(t);
-                if (--i[0] == 0) {
+                if (--i == 0) {
                     stop();
                 }
-            });
-        };
+            }
+        });
     }
 
     default Seq<T> takeWhile(Predicate<T> predicate) {
-        return c -> consumeTillStop(t -> {
-            if (predicate.test(t)) {
-                c.accept(t);
-            } else {
-                stop();
+        return c -> consumeTillStop(new StopFlag.ForObj<T>(c) {
+            @Override
+            protected void onAccept(T t) {
+                if (predicate.test(t)) {
+                    c.accept(t);
+                } else {
+                    stop();
+                }
             }
         });
     }
@@ -910,18 +1228,20 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
     }
 
     default <E> Seq<T> takeWhile(Function<T, E> function, BiPredicate<E, E> testPrevCurr) {
-        return c -> {
-            Mutable<E> m = new Mutable<>(null);
-            consumeTillStop(t -> {
+        return c -> consumeTillStop(new StopFlag.ForObj<T>(c) {
+            E last;
+
+            @Override
+            protected void onAccept(T t) {
                 E curr = function.apply(t);
-                if (m.it == null || testPrevCurr.test(m.it, curr)) {
+                if (last == null || testPrevCurr.test(last, curr)) {
                     c.accept(t);
-                    m.it = curr;
+                    last = curr;
                 } else {
                     stop();
                 }
-            });
-        };
+            }
+        });
     }
 
     default Seq<T> takeWhileEquals() {
@@ -933,15 +1253,18 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
     }
 
     default Seq<T> timeLimit(long millis) {
-        return millis <= 0 ? this : c -> {
-            long end = System.currentTimeMillis() + millis;
-            consumeTillStop(t -> {
+        return millis <= 0 ? this : c -> consumeTillStop(new StopFlag.ForObj<T>(c) {
+            final long end = System.currentTimeMillis() + millis;
+
+            @Override
+            protected void onAccept(T t) {
                 if (System.currentTimeMillis() > end) {
                     stop();
+                } else {
+                    c.accept(t);
                 }
-                c.accept(t);
-            });
-        };
+            }
+        });
     }
 
     default T[] toObjArray(IntFunction<T[]> initializer) {
@@ -1019,6 +1342,26 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
         return reduce(Reducer.toSet(sizeOrDefault()));
     }
 
+    default ArraySeq<T> topK(int k, Comparator<T> comparator) {
+        return reduce(Reducer.topK(k, comparator));
+    }
+
+    default <E extends Comparable<E>> ArraySeq<T> topKBy(int k, Function<T, E> function) {
+        return reduce(Reducer.topKBy(k, function));
+    }
+
+    default ArraySeq<T> topKByInt(int k, ToIntFunction<T> function) {
+        return reduce(Reducer.topKByInt(k, function));
+    }
+
+    default ArraySeq<T> topKByDouble(int k, ToDoubleFunction<T> function) {
+        return reduce(Reducer.topKByDouble(k, function));
+    }
+
+    default ArraySeq<T> topKByLong(int k, ToLongFunction<T> function) {
+        return reduce(Reducer.topKByLong(k, function));
+    }
+
     default <A, B, D> Seq3<A, B, D> triple(BiConsumer<Consumer3<A, B, D>, T> consumer) {
         return c -> consume(t -> consumer.accept(c, t));
     }
@@ -1171,13 +1514,40 @@ public interface Seq<T> extends Seq0<Consumer<T>> {
 
     default <E> void zip(Iterable<E> iterable, BiConsumer<T, E> consumer) {
         Iterator<E> iterator = iterable.iterator();
-        consumeTillStop(t -> consumer.accept(t, ItrUtil.pop(iterator)));
+        try {
+            consumeTillStop(new StopFlag.ForObj<T>(null) {
+                @Override
+                protected void onAccept(T t) {
+                    if (iterator.hasNext()) {
+                        consumer.accept(t, iterator.next());
+                    } else {
+                        stop();
+                    }
+                }
+            });
+        } finally {
+            ItrUtil.close(iterator);
+        }
     }
 
     default <B, C> void zip(Iterable<B> bs, Iterable<C> cs, Consumer3<T, B, C> consumer) {
         Iterator<B> bi = bs.iterator();
         Iterator<C> ci = cs.iterator();
-        consumeTillStop(t -> consumer.accept(t, ItrUtil.pop(bi), ItrUtil.pop(ci)));
+        try {
+            consumeTillStop(new StopFlag.ForObj<T>(null) {
+                @Override
+                protected void onAccept(T t) {
+                    if (bi.hasNext() && ci.hasNext()) {
+                        consumer.accept(t, bi.next(), ci.next());
+                    } else {
+                        stop();
+                    }
+                }
+            });
+        } finally {
+            ItrUtil.close(bi);
+            ItrUtil.close(ci);
+        }
     }
 
     interface IntObjToInt<T> {
@@ -0,0 +1,86 @@
+package com.github.wolray.seq;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Element codec used when a seq spills to disk, e.g. by {@link SpillSeq}.
+ *
+ * @author wolray
+ */
+public interface Serializer<T> {
+    T read(DataInput in) throws IOException;
+    void write(DataOutput out, T t) throws IOException;
+
+    static <T> Serializer<T> of(Reader<T> reader, Writer<T> writer) {
+        return new Serializer<T>() {
+            @Override
+            public T read(DataInput in) throws IOException {
+                return reader.read(in);
+            }
+
+            @Override
+            public void write(DataOutput out, T t) throws IOException {
+                writer.write(out, t);
+            }
+        };
+    }
+
+    static Serializer<Double> ofDouble() {
+        return of(DataInput::readDouble, DataOutput::writeDouble);
+    }
+
+    static Serializer<Integer> ofInt() {
+        return of(DataInput::readInt, DataOutput::writeInt);
+    }
+
+    static <T extends Serializable> Serializer<T> ofJava() {
+        return new Serializer<T>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public T read(DataInput in) throws IOException {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    return (T)ois.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException(e);
+                }
+            }
+
+            @Override
+            public void write(DataOutput out, T t) throws IOException {
+                ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+                    oos.writeObject(t);
+                }
+                out.writeInt(bos.size());
+                out.write(bos.toByteArray());
+            }
+        };
+    }
+
+    static Serializer<Long> ofLong() {
+        return of(DataInput::readLong, DataOutput::writeLong);
+    }
+
+    static Serializer<String> ofString() {
+        return of(in -> {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }, (out, s) -> {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        });
+    }
+
+    interface Reader<T> {
+        T read(DataInput in) throws IOException;
+    }
+
+    interface Writer<T> {
+        void write(DataOutput out, T t) throws IOException;
+    }
+}
@@ -0,0 +1,180 @@
+package com.github.wolray.seq;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Stable sorts on primitive keys. Keys are extracted once into a {@code long[]} mapped so that
+ * unsigned order matches the wanted order, an index permutation is sorted by an LSD radix sort that
+ * skips bytes shared by all keys, and the list is rearranged once. From {@link #PARALLEL_THRESHOLD}
+ * elements the parallel variants radix-sort leaves of the permutation on the common pool and merge
+ * them stably.
+ *
+ * @author wolray
+ */
+public interface SortUtil {
+    int PARALLEL_THRESHOLD = 1 << 13;
+
+    static <T> long[] doubleKeys(List<T> list, ToDoubleFunction<T> function, boolean desc) {
+        long[] keys = new long[list.size()];
+        for (int i = 0; i < keys.length; i++) {
+            long bits = Double.doubleToLongBits(function.applyAsDouble(list.get(i)));
+            long k = bits ^ (bits >> 63 & Long.MAX_VALUE) ^ Long.MIN_VALUE;
+            keys[i] = desc ? ~k : k;
+        }
+        return keys;
+    }
+
+    static <T> long[] intKeys(List<T> list, ToIntFunction<T> function, boolean desc) {
+        long[] keys = new long[list.size()];
+        long mask = desc ? 0xFFFFFFFFL : 0;
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = ((function.applyAsInt(list.get(i)) ^ Integer.MIN_VALUE) & 0xFFFFFFFFL) ^ mask;
+        }
+        return keys;
+    }
+
+    static <T> long[] longKeys(List<T> list, ToLongFunction<T> function, boolean desc) {
+        long[] keys = new long[list.size()];
+        for (int i = 0; i < keys.length; i++) {
+            long k = function.applyAsLong(list.get(i)) ^ Long.MIN_VALUE;
+            keys[i] = desc ? ~k : k;
+        }
+        return keys;
+    }
+
+    static int[] order(long[] keys, int bits) {
+        int n = keys.length;
+        int[] index = new int[n];
+        for (int i = 0; i < n; i++) {
+            index[i] = i;
+        }
+        if (n < 2) {
+            return index;
+        }
+        long[] keys2 = new long[n];
+        int[] index2 = new int[n];
+        int[] count = new int[257];
+        for (int shift = 0; shift < bits; shift += 8) {
+            Arrays.fill(count, 0);
+            for (long k : keys) {
+                count[(int)(k >>> shift & 0xFF) + 1]++;
+            }
+            if (count[(int)(keys[0] >>> shift & 0xFF) + 1] == n) {
+                continue;
+            }
+            for (int b = 0; b < 256; b++) {
+                count[b + 1] += count[b];
+            }
+            for (int i = 0; i < n; i++) {
+                long k = keys[i];
+                int j = count[(int)(k >>> shift & 0xFF)]++;
+                keys2[j] = k;
+                index2[j] = index[i];
+            }
+            long[] ka = keys;
+            keys = keys2;
+            keys2 = ka;
+            int[] ia = index;
+            index = index2;
+            index2 = ia;
+        }
+        return index;
+    }
+
+    static int[] parallelOrder(long[] keys, int bits) {
+        int n = keys.length;
+        if (n < PARALLEL_THRESHOLD) {
+            return order(keys, bits);
+        }
+        int[] index = new int[n];
+        long[] sorted = new long[n];
+        int[] indexBuffer = new int[n];
+        long[] keyBuffer = new long[n];
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                sort(0, n);
+            }
+
+            void sort(int lo, int hi) {
+                if (hi - lo <= PARALLEL_THRESHOLD) {
+                    int[] o = order(Arrays.copyOfRange(keys, lo, hi), bits);
+                    for (int i = 0; i < o.length; i++) {
+                        index[lo + i] = lo + o[i];
+                        sorted[lo + i] = keys[lo + o[i]];
+                    }
+                    return;
+                }
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        sort(lo, mid);
+                    }
+                }, new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        sort(mid, hi);
+                    }
+                });
+                merge(lo, mid, hi);
+            }
+
+            void merge(int lo, int mid, int hi) {
+                System.arraycopy(sorted, lo, keyBuffer, lo, hi - lo);
+                System.arraycopy(index, lo, indexBuffer, lo, hi - lo);
+                int i = lo, j = mid, k = lo;
+                while (i < mid && j < hi) {
+                    if (Long.compareUnsigned(keyBuffer[j], keyBuffer[i]) < 0) {
+                        sorted[k] = keyBuffer[j];
+                        index[k++] = indexBuffer[j++];
+                    } else {
+                        sorted[k] = keyBuffer[i];
+                        index[k++] = indexBuffer[i++];
+                    }
+                }
+                System.arraycopy(keyBuffer, i, sorted, k, mid - i);
+                System.arraycopy(indexBuffer, i, index, k, mid - i);
+            }
+        });
+        return index;
+    }
+
+    static <T> void parallelSortByDouble(List<T> list, ToDoubleFunction<T> function, boolean desc) {
+        permute(list, parallelOrder(doubleKeys(list, function, desc), 64));
+    }
+
+    static <T> void parallelSortByInt(List<T> list, ToIntFunction<T> function, boolean desc) {
+        permute(list, parallelOrder(intKeys(list, function, desc), 32));
+    }
+
+    static <T> void parallelSortByLong(List<T> list, ToLongFunction<T> function, boolean desc) {
+        permute(list, parallelOrder(longKeys(list, function, desc), 64));
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> void permute(List<T> list, int[] order) {
+        Object[] a = list.toArray();
+        for (int i = 0; i < order.length; i++) {
+            list.set(i, (T)a[order[i]]);
+        }
+    }
+
+    static <T> void sortByDouble(List<T> list, ToDoubleFunction<T> function, boolean desc) {
+        permute(list, order(doubleKeys(list, function, desc), 64));
+    }
+
+    static <T> void sortByInt(List<T> list, ToIntFunction<T> function, boolean desc) {
+        permute(list, order(intKeys(list, function, desc), 32));
+    }
+
+    static <T> void sortByLong(List<T> list, ToLongFunction<T> function, boolean desc) {
+        permute(list, order(longKeys(list, function, desc), 64));
+    }
+}
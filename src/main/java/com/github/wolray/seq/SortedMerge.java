@@ -0,0 +1,98 @@
+package com.github.wolray.seq;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+
+/**
+ * K-way merge of already sorted seqs, behind {@link Seq#mergeSorted}. Every input is pulled through
+ * its own iterator, push inputs through a {@link Generator}, and a heap of one head per input picks
+ * the next element, so memory is proportional to the number of inputs. Equal elements come out in
+ * input order; with a combiner, each run of elements equal to the first of the run is folded into one.
+ *
+ * @author wolray
+ */
+public class SortedMerge<T> implements Seq<T> {
+    private final List<Seq<T>> seqs;
+    private final Comparator<T> comparator;
+    private final BinaryOperator<T> combiner;
+
+    @SuppressWarnings("unchecked")
+    public SortedMerge(List<Seq<T>> seqs, Comparator<T> comparator, BinaryOperator<T> combiner) {
+        this.seqs = seqs;
+        this.comparator = comparator != null ? comparator : (Comparator<T>)Comparator.naturalOrder();
+        this.combiner = combiner;
+    }
+
+    @Override
+    public void consume(Consumer<T> consumer) {
+        List<Iterator<T>> iterators = new ArrayList<>(seqs.size());
+        PriorityQueue<Head> queue = new PriorityQueue<>(Math.max(1, seqs.size()));
+        try {
+            for (Seq<T> seq : seqs) {
+                Iterator<T> iterator = seq.asIterable().iterator();
+                iterators.add(iterator);
+                Head head = new Head(iterators.size() - 1, iterator);
+                if (head.advance()) {
+                    queue.add(head);
+                }
+            }
+            StopFlag flag = StopFlag.of(consumer);
+            boolean hasPending = false;
+            T pending = null;
+            T first = null;
+            while (!queue.isEmpty() && !flag.isStopped()) {
+                Head head = queue.poll();
+                T t = head.value;
+                if (head.advance()) {
+                    queue.add(head);
+                }
+                if (combiner == null) {
+                    consumer.accept(t);
+                } else if (!hasPending) {
+                    pending = first = t;
+                    hasPending = true;
+                } else if (comparator.compare(first, t) == 0) {
+                    pending = combiner.apply(pending, t);
+                } else {
+                    consumer.accept(pending);
+                    pending = first = t;
+                }
+            }
+            if (hasPending && !flag.isStopped()) {
+                consumer.accept(pending);
+            }
+        } finally {
+            iterators.forEach(ItrUtil::close);
+        }
+    }
+
+    class Head implements Comparable<Head> {
+        final int index;
+        final Iterator<T> iterator;
+        T value;
+
+        Head(int index, Iterator<T> iterator) {
+            this.index = index;
+            this.iterator = iterator;
+        }
+
+        boolean advance() {
+            if (iterator.hasNext()) {
+                value = iterator.next();
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int compareTo(Head o) {
+            int c = comparator.compare(value, o.value);
+            return c != 0 ? c : Integer.compare(index, o.index);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.github.wolray.seq;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Cache with a heap budget, behind {@link Seq#cache(long, Serializer)}. Elements are kept in a
+ * {@link BatchedSeq} while their weight stays within {@code maxWeight}; from the first element that
+ * does not fit, everything else is appended to a temp file through the {@link Serializer}, so the
+ * original order is kept. Replays read the memory part and then stream the file. How much was
+ * spilled is exposed to tune budgets, and {@link #close()} deletes the file, after which the cache
+ * can no longer be replayed or extended. Iterators are {@link AutoCloseable} and release their read
+ * handle once exhausted, on failure, or when closed early.
+ *
+ * @author wolray
+ */
+public class SpillSeq<T> implements SizedSeq<T>, AutoCloseable {
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private final BatchedSeq<T> memory = new BatchedSeq<>();
+    private final long maxWeight;
+    private final ToLongFunction<T> weigher;
+    private final Serializer<T> serializer;
+    private long weight;
+    private Path file;
+    private DataOutputStream out;
+    private long spilled;
+    private volatile boolean closed;
+
+    public SpillSeq(long maxElements, Serializer<T> serializer) {
+        this(maxElements, t -> 1, serializer);
+    }
+
+    public SpillSeq(long maxWeight, ToLongFunction<T> weigher, Serializer<T> serializer) {
+        if (maxWeight < 0) {
+            throw new IllegalArgumentException("negative maxWeight");
+        }
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.serializer = serializer;
+    }
+
+    public void add(T t) {
+        checkOpen();
+        if (out == null) {
+            long w = weigher.applyAsLong(t);
+            if (weight + w <= maxWeight) {
+                memory.add(t);
+                weight += w;
+                return;
+            }
+        }
+        try {
+            if (out == null) {
+                file = Files.createTempFile("seq-spill-", ".bin");
+                out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE));
+            }
+            serializer.write(out, t);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        spilled++;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (out != null) {
+            try {
+                out.close();
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            out = null;
+            file = null;
+        }
+    }
+
+    @Override
+    public void consume(Consumer<T> consumer) {
+        checkOpen();
+        StopFlag flag = StopFlag.of(consumer);
+        memory.consume(consumer);
+        if (spilled == 0 || flag.isStopped()) {
+            return;
+        }
+        try (DataInputStream in = openSpill()) {
+            for (long i = 0; i < spilled && !flag.isStopped(); i++) {
+                consumer.accept(serializer.read(in));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long inMemory() {
+        return memory.size();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return memory.isEmpty() && spilled == 0;
+    }
+
+    public boolean isSpilled() {
+        return spilled > 0;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        checkOpen();
+        return new SpillItr();
+    }
+
+    @Override
+    public int size() {
+        return (int)Math.min(total(), Integer.MAX_VALUE);
+    }
+
+    public long spilled() {
+        return spilled;
+    }
+
+    public long spilledBytes() {
+        if (out == null) {
+            return 0;
+        }
+        try {
+            out.flush();
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long total() {
+        return memory.size() + spilled;
+    }
+
+    public long weight() {
+        return weight;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("closed");
+        }
+    }
+
+    private synchronized DataInputStream openSpill() throws IOException {
+        checkOpen();
+        out.flush();
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE));
+    }
+
+    class SpillItr extends PickItr<T> implements AutoCloseable {
+        final Iterator<T> head = memory.iterator();
+        DataInputStream in;
+        long i;
+
+        @Override
+        public void close() {
+            i = spilled;
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    in = null;
+                }
+            }
+        }
+
+        @Override
+        public T pick() {
+            if (head.hasNext()) {
+                return head.next();
+            }
+            if (i >= spilled) {
+                close();
+                return end();
+            }
+            try {
+                if (in == null) {
+                    in = openSpill();
+                }
+                T t = serializer.read(in);
+                i++;
+                return t;
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException(e);
+            } catch (RuntimeException | Error e) {
+                close();
+                throw e;
+            }
+        }
+    }
+}
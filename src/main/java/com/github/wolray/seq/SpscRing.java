@@ -0,0 +1,162 @@
+package com.github.wolray.seq;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Lock-free single-producer/single-consumer ring buffer behind {@link Async#toChannel}. Exactly one
+ * thread may call {@link #put} and exactly one thread may {@link #consume}. Indices are published
+ * with ordered writes and each side caches the other's index, so the hot path touches no lock and no
+ * shared counter. How a side waits for the other when the ring is full or empty is chosen by
+ * {@link Wait}; {@link Wait#BLOCKING} switches to full volatile writes so that a parked side is
+ * never missed.
+ *
+ * @author wolray
+ */
+public class SpscRing<T> implements Seq<T> {
+    private static final Object NULL = new Object();
+
+    private final Object[] buffer;
+    private final int mask;
+    private final Wait wait;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private long cachedHead;
+    private long cachedTail;
+    private volatile boolean closed;
+    private volatile Throwable error;
+    private volatile Thread parkedProducer;
+    private volatile Thread parkedConsumer;
+
+    public SpscRing(int capacity, Wait wait) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("non-positive capacity");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        buffer = new Object[size];
+        mask = size - 1;
+        this.wait = wait;
+    }
+
+    public void close() {
+        closed = true;
+        LockSupport.unpark(parkedConsumer);
+        LockSupport.unpark(parkedProducer);
+    }
+
+    public void close(Throwable e) {
+        error = e;
+        close();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void consume(Consumer<T> consumer) {
+        StopFlag flag = StopFlag.of(consumer);
+        long h = head.get();
+        for (int idle = 0; !flag.isStopped(); ) {
+            if (h == cachedTail && (cachedTail = tail.get()) == h) {
+                if (closed && h == tail.get()) {
+                    break;
+                }
+                if (wait == Wait.BLOCKING && idle >= Wait.SPINS) {
+                    parkedConsumer = Thread.currentThread();
+                    if (h == tail.get() && !closed) {
+                        LockSupport.park(this);
+                    }
+                    parkedConsumer = null;
+                } else {
+                    wait.idle(idle);
+                }
+                idle++;
+                continue;
+            }
+            idle = 0;
+            int i = (int)h & mask;
+            Object o = buffer[i];
+            buffer[i] = null;
+            if (wait == Wait.BLOCKING) {
+                head.set(++h);
+                LockSupport.unpark(parkedProducer);
+            } else {
+                head.lazySet(++h);
+            }
+            consumer.accept(o == NULL ? null : (T)o);
+        }
+        Throwable e = error;
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException)e;
+        }
+        if (e instanceof Error) {
+            throw (Error)e;
+        }
+        if (e != null) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public void put(T t) {
+        long tl = tail.get();
+        long wrap = tl - buffer.length;
+        for (int idle = 0; wrap >= cachedHead && wrap >= (cachedHead = head.get()); idle++) {
+            if (closed) {
+                throw StopException.INSTANCE;
+            }
+            if (wait == Wait.BLOCKING && idle >= Wait.SPINS) {
+                parkedProducer = Thread.currentThread();
+                if (wrap >= head.get() && !closed) {
+                    LockSupport.park(this);
+                }
+                parkedProducer = null;
+            } else {
+                wait.idle(idle);
+            }
+        }
+        if (closed) {
+            throw StopException.INSTANCE;
+        }
+        buffer[(int)tl & mask] = t == null ? NULL : t;
+        if (wait == Wait.BLOCKING) {
+            tail.set(tl + 1);
+            LockSupport.unpark(parkedConsumer);
+        } else {
+            tail.lazySet(tl + 1);
+        }
+    }
+
+    public enum Wait {
+        SPIN,
+        YIELD,
+        PARK,
+        BLOCKING;
+
+        static final int SPINS = 100;
+
+        void idle(int count) {
+            switch (this) {
+                case SPIN:
+                    if (count >= SPINS) {
+                        Thread.yield();
+                    }
+                    break;
+                case YIELD:
+                    Thread.yield();
+                    break;
+                default:
+                    if (count < SPINS) {
+                        Thread.yield();
+                    } else {
+                        LockSupport.parkNanos(50_000);
+                    }
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.github.wolray.seq;
+
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Conflating state holder behind {@link Seq#stateIn}. The producer swaps an immutable versioned
+ * value into an atomic slot and never waits; equal consecutive values are skipped. Each subscriber
+ * remembers the last version it delivered, so it always resumes from the latest value, skipping
+ * whatever was overwritten in between, and parks on its own thread until a newer version arrives.
+ *
+ * @author wolray
+ */
+public class StateSlot<T> implements Seq<T> {
+    static final int SPINS = 100;
+
+    private final Async async;
+    private final AtomicReference<Version<T>> slot = new AtomicReference<>(new Version<>(0, null));
+    private final CopyOnWriteArrayList<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private volatile boolean closed;
+    private volatile boolean cancelled;
+
+    public StateSlot() {
+        this(null);
+    }
+
+    public StateSlot(Async async) {
+        this.async = async;
+    }
+
+    public void cancel() {
+        cancelled = true;
+        close();
+    }
+
+    public void close() {
+        closed = true;
+        subscribers.forEach(Subscriber::wake);
+    }
+
+    @Override
+    public void consume(Consumer<T> consumer) {
+        if (async != null) {
+            async.submit(() -> subscribe(consumer));
+        } else {
+            subscribe(consumer);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public void publish(T t) {
+        Version<T> old = slot.get();
+        if (old.version > 0 && Objects.equals(old.value, t)) {
+            return;
+        }
+        slot.set(new Version<>(old.version + 1, t));
+        subscribers.forEach(Subscriber::wake);
+    }
+
+    public void subscribe(Consumer<T> consumer) {
+        Subscriber s = new Subscriber();
+        subscribers.add(s);
+        try {
+            StopFlag flag = StopFlag.of(consumer);
+            for (int idle = 0; !flag.isStopped() && !cancelled; ) {
+                Version<T> v = slot.get();
+                if (v.version != s.version) {
+                    idle = 0;
+                    s.skipped += s.version == 0 ? 0 : v.version - s.version - 1;
+                    s.version = v.version;
+                    consumer.accept(v.value);
+                } else if (closed && slot.get() == v) {
+                    return;
+                } else {
+                    s.await(idle++);
+                }
+            }
+        } finally {
+            subscribers.remove(s);
+        }
+    }
+
+    public Seq<Subscriber> subscribers() {
+        return subscribers::forEach;
+    }
+
+    public T value() {
+        return slot.get().value;
+    }
+
+    public long version() {
+        return slot.get().version;
+    }
+
+    static class Version<T> {
+        final long version;
+        final T value;
+
+        Version(long version, T value) {
+            this.version = version;
+            this.value = value;
+        }
+    }
+
+    public class Subscriber {
+        private volatile long version;
+        private volatile long skipped;
+        private volatile Thread parked;
+
+        public long skipped() {
+            return skipped;
+        }
+
+        public long version() {
+            return version;
+        }
+
+        void await(int idle) {
+            if (idle < SPINS) {
+                Thread.yield();
+                return;
+            }
+            parked = Thread.currentThread();
+            if (slot.get().version == version && !closed) {
+                LockSupport.park(this);
+            }
+            parked = null;
+        }
+
+        void wake() {
+            Thread t = parked;
+            if (t != null) {
+                LockSupport.unpark(t);
+            }
+        }
+    }
+}
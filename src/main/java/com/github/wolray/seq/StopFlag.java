@@ -0,0 +1,253 @@
+package com.github.wolray.seq;
+
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Exception-free alternative to {@link StopException} for push pipelines.
+ * <p>
+ * A short-circuiting stage hands its source a consumer that is also a {@link Holder}.
+ * A source that calls {@link #of(Object)} before its loop and checks {@link #isStopped()}
+ * between elements lets that stage end the iteration by simply returning. Stages whose
+ * source never polled still fall back to throwing {@link StopException}, so sources that
+ * are unaware of the flag keep working unchanged, and every stage throws it as well when an
+ * element still arrives after a stop, which ends composite sources such as {@link Seq#appendWith}
+ * that move on to their next part.
+ *
+ * @author wolray
+ */
+public class StopFlag {
+    static final StopFlag NEVER = new StopFlag(null);
+
+    private final StopFlag downstream;
+    private boolean stopped;
+    private boolean polled;
+
+    StopFlag(Object downstream) {
+        this.downstream = flagOf(downstream);
+        if (this.downstream != null && this.downstream.isStopped()) {
+            throw StopException.INSTANCE;
+        }
+    }
+
+    public static StopFlag of(Object consumer) {
+        StopFlag flag = flagOf(consumer);
+        if (flag == null) {
+            return NEVER;
+        }
+        if (flag.isStopped()) {
+            throw StopException.INSTANCE;
+        }
+        for (StopFlag f = flag; f != null; f = f.downstream) {
+            f.polled = true;
+        }
+        return flag;
+    }
+
+    public static <T> Consumer<T> wrap(Object downstream, Consumer<T> consumer) {
+        StopFlag flag = flagOf(downstream);
+        return flag == null ? consumer : new ObjForward<>(flag, consumer);
+    }
+
+    public static IntConsumer wrapInt(Object downstream, IntConsumer consumer) {
+        StopFlag flag = flagOf(downstream);
+        return flag == null ? consumer : new IntForward(flag, consumer);
+    }
+
+    public static LongConsumer wrapLong(Object downstream, LongConsumer consumer) {
+        StopFlag flag = flagOf(downstream);
+        return flag == null ? consumer : new LongForward(flag, consumer);
+    }
+
+    public static DoubleConsumer wrapDouble(Object downstream, DoubleConsumer consumer) {
+        StopFlag flag = flagOf(downstream);
+        return flag == null ? consumer : new DoubleForward(flag, consumer);
+    }
+
+    private static StopFlag flagOf(Object consumer) {
+        return consumer instanceof Holder ? ((Holder)consumer).stopFlag() : null;
+    }
+
+    public boolean isStopped() {
+        return stopped || downstream != null && downstream.isStopped();
+    }
+
+    public void stop() {
+        stopped = true;
+        if (!polled) {
+            throw StopException.INSTANCE;
+        }
+    }
+
+    void checkStopped() {
+        if (isStopped()) {
+            throw StopException.INSTANCE;
+        }
+    }
+
+    public interface Holder {
+        StopFlag stopFlag();
+    }
+
+    public static abstract class ForObj<T> extends StopFlag implements Consumer<T>, Holder {
+        public ForObj(Object downstream) {
+            super(downstream);
+        }
+
+        protected abstract void onAccept(T t);
+
+        @Override
+        public final void accept(T t) {
+            checkStopped();
+            onAccept(t);
+        }
+
+        @Override
+        public StopFlag stopFlag() {
+            return this;
+        }
+    }
+
+    public static abstract class ForInt extends StopFlag implements IntConsumer, Holder {
+        public ForInt(Object downstream) {
+            super(downstream);
+        }
+
+        protected abstract void onAccept(int t);
+
+        @Override
+        public final void accept(int t) {
+            checkStopped();
+            onAccept(t);
+        }
+
+        @Override
+        public StopFlag stopFlag() {
+            return this;
+        }
+    }
+
+    public static abstract class ForLong extends StopFlag implements LongConsumer, Holder {
+        public ForLong(Object downstream) {
+            super(downstream);
+        }
+
+        protected abstract void onAccept(long t);
+
+        @Override
+        public final void accept(long t) {
+            checkStopped();
+            onAccept(t);
+        }
+
+        @Override
+        public StopFlag stopFlag() {
+            return this;
+        }
+    }
+
+    public static abstract class ForDouble extends StopFlag implements DoubleConsumer, Holder {
+        public ForDouble(Object downstream) {
+            super(downstream);
+        }
+
+        protected abstract void onAccept(double t);
+
+        @Override
+        public final void accept(double t) {
+            checkStopped();
+            onAccept(t);
+        }
+
+        @Override
+        public StopFlag stopFlag() {
+            return this;
+        }
+    }
+
+    static class ObjForward<T> implements Consumer<T>, Holder {
+        final StopFlag flag;
+        final Consumer<T> consumer;
+
+        ObjForward(StopFlag flag, Consumer<T> consumer) {
+            this.flag = flag;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void accept(T t) {
+            flag.checkStopped();
+            consumer.accept(t);
+        }
+
+        @Override
+        public StopFlag stopFlag() {
+            return flag;
+        }
+    }
+
+    static class IntForward implements IntConsumer, Holder {
+        final StopFlag flag;
+        final IntConsumer consumer;
+
+        IntForward(StopFlag flag, IntConsumer consumer) {
+            this.flag = flag;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void accept(int t) {
+            flag.checkStopped();
+            consumer.accept(t);
+        }
+
+        @Override
+        public StopFlag stopFlag() {
+            return flag;
+        }
+    }
+
+    static class LongForward implements LongConsumer, Holder {
+        final StopFlag flag;
+        final LongConsumer consumer;
+
+        LongForward(StopFlag flag, LongConsumer consumer) {
+            this.flag = flag;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void accept(long t) {
+            flag.checkStopped();
+            consumer.accept(t);
+        }
+
+        @Override
+        public StopFlag stopFlag() {
+            return flag;
+        }
+    }
+
+    static class DoubleForward implements DoubleConsumer, Holder {
+        final StopFlag flag;
+        final DoubleConsumer consumer;
+
+        DoubleForward(StopFlag flag, DoubleConsumer consumer) {
+            this.flag = flag;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void accept(double t) {
+            flag.checkStopped();
+            consumer.accept(t);
+        }
+
+        @Override
+        public StopFlag stopFlag() {
+            return flag;
+        }
+    }
+}
@@ -17,11 +17,20 @@ public interface Transducer<T, V, E> {
             } else {
                 m.set(t);
             }
+        }, (m1, m2) -> {
+            if (m2.isSet) {
+                if (m1.isSet) {
+                    m1.it = binaryOperator.apply(m1.it, m2.it);
+                } else {
+                    m1.set(m2.it);
+                }
+            }
+            return m1;
         }, Mutable::get);
     }
 
     static <T, V, E> Transducer<T, V, E> of(Collector<T, V, E> collector) {
-        return of(Reducer.of(collector.supplier(), collector.accumulator()), collector.finisher());
+        return of(Reducer.of(collector.supplier(), collector.accumulator(), null, collector.combiner()), collector.finisher());
     }
 
     static <T, V, E> Transducer<T, V, E> of(Reducer<T, V> reducer, Function<V, E> transformer) {
@@ -41,4 +50,8 @@ public interface Transducer<T, V, E> {
     static <T, V, E> Transducer<T, V, E> of(Supplier<V> supplier, BiConsumer<V, T> accumulator, Function<V, E> transformer) {
         return of(Reducer.of(supplier, accumulator), transformer);
     }
+
+    static <T, V, E> Transducer<T, V, E> of(Supplier<V> supplier, BiConsumer<V, T> accumulator, BinaryOperator<V> combiner, Function<V, E> transformer) {
+        return of(Reducer.of(supplier, accumulator, null, combiner), transformer);
+    }
 }
@@ -0,0 +1,37 @@
+package com.github.wolray.seq;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual-thread factory used by {@link Async#virtual()}. The multi-release jar replaces this class
+ * with the Java 21 version under {@code src/main/java21}; this base version looks
+ * {@code Thread.ofVirtual()} up reflectively, so a jar built without the Java 21 layer still gets
+ * virtual threads on a Java 21 runtime and reports them as unsupported below it.
+ *
+ * @author wolray
+ */
+public class VirtualThreads {
+    private static final ThreadFactory FACTORY = lookup();
+
+    public static boolean isSupported() {
+        return FACTORY != null;
+    }
+
+    public static ThreadFactory factory() {
+        if (FACTORY == null) {
+            throw new UnsupportedOperationException("virtual threads require Java 21");
+        }
+        return FACTORY;
+    }
+
+    private static ThreadFactory lookup() {
+        try {
+            Class<?> type = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = type.getMethod("name", String.class, long.class).invoke(builder, "seq-virtual-", 0L);
+            return (ThreadFactory)type.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.wolray.seq;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual-thread factory used by {@link Async#virtual()} on Java 21 and above.
+ *
+ * @author wolray
+ */
+public class VirtualThreads {
+    private static final ThreadFactory FACTORY = Thread.ofVirtual().name("seq-virtual-", 0).factory();
+
+    public static boolean isSupported() {
+        return true;
+    }
+
+    public static ThreadFactory factory() {
+        return FACTORY;
+    }
+}
@@ -3,12 +3,22 @@ package com.github.wolray.seq;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 import java.util.regex.Pattern;
 
 /**
@@ -66,6 +76,282 @@ public class SeqTest {
         assertTo(pair1.second, "0,2,4,6,10,12");
     }
 
+    @Test
+    public void testBatched() {
+        BatchedSeq<Integer> seq = IntSeq.range(1000).boxed().toBatched();
+        assert seq.size() == 1000 && seq.get(0) == 0 && seq.get(15) == 15 && seq.get(16) == 16 && seq.get(999) == 999;
+        assert IntSeq.range(1000).boxed().all(i -> seq.get(i).equals(i));
+        assert Arrays.equals(seq.toArray(), IntSeq.range(1000).boxed().toObjArray(Integer[]::new));
+        assert seq.toList().equals(seq.asIterable().toList()) && seq.count() == 1000;
+        assertTo(seq.take(3), "0,1,2");
+        assertTo(seq.drop(997), "997,998,999");
+        assertTo(IntSeq.range(5).boxed().reduceParallel(Async.common(), 2, Reducer.toBatched()).sorted(), "0,1,2,3,4");
+        try {
+            seq.get(1000);
+            assert false;
+        } catch (IndexOutOfBoundsException ignore) {
+        }
+    }
+
+    @Test
+    public void testIntArraySeq() {
+        IntArraySeq seq = IntSeq.of(5, 3, 9, 1, 7).toBatched();
+        assert seq.size() == 5 && seq.get(2) == 9;
+        assert Arrays.equals(seq.toArray(), new int[]{5, 3, 9, 1, 7});
+        IntArraySeq sub = seq.subList(1, 4).sort();
+        assertTo(sub.boxed(), "1,3,9");
+        assertTo(seq.boxed(), "5,1,3,9,7");
+        assert sub.binarySearch(3) == 1 && sub.binarySearch(4) == -3;
+        sub.set(0, 2);
+        assert seq.get(1) == 2;
+        try {
+            sub.add(0);
+            assert false;
+        } catch (UnsupportedOperationException ignore) {
+        }
+        int[] a = IntSeq.range(1000).toArray();
+        assert a.length == 1000 && a[999] == 999;
+        IntArraySeq big = new IntArraySeq(0);
+        IntSeq.range(100).consume(big::add);
+        big.addAll(IntArraySeq.wrap(1, 2));
+        assert big.size() == 102 && big.get(101) == 2 && big.cache() == big;
+        assertTo(IntSeq.range(10).cache().take(3).boxed(), "0,1,2");
+
+        LongArraySeq longs = LongSeq.range(1000).toBatched();
+        assert longs.size() == 1000 && longs.get(999) == 999 && LongSeq.range(1000).toArray().length == 1000;
+        assertTo(longs.subList(10, 13).boxed(), "10,11,12");
+        DoubleArraySeq doubles = DoubleSeq.range(0, 2, 0.5).toBatched();
+        assert doubles.size() == 4 && doubles.get(3) == 1.5 && doubles.binarySearch(1.0) == 2;
+        assertTo(doubles.cache().take(2).boxed(), "0.0,0.5");
+    }
+
+    @Test
+    public void testOffHeap() {
+        long before = OffHeapSeq.allocatedBytes();
+        OffHeapSeq.OfInt ints = IntSeq.range(5000).toOffHeap();
+        assert ints.size() == 5000 && ints.get(0) == 0 && ints.get(1023) == 1023 && ints.get(1024) == 1024;
+        assert ints.get(4999) == 4999 && ints.sum() == IntSeq.range(5000).sum();
+        assertTo(ints.take(3).boxed(), "0,1,2");
+        assert ints.bytes() >= 5000 * 4 && OffHeapSeq.allocatedBytes() - before == ints.bytes();
+        ints.close();
+        assert ints.isClosed() && OffHeapSeq.allocatedBytes() == before;
+        try {
+            ints.sum();
+            assert false;
+        } catch (IllegalStateException ignore) {
+        }
+        try {
+            ints.add(1);
+            assert false;
+        } catch (IllegalStateException ignore) {
+        }
+
+        OffHeapSeq.OfInt filling = new OffHeapSeq.OfInt();
+        filling.addAll(c -> {
+            IntSeq.range(2000).consume(c);
+            assert filling.get(1999) == 1999;
+            filling.close();
+            assert filling.size() == 2000 && OffHeapSeq.allocatedBytes() - before == filling.bytes();
+        });
+        assert filling.isClosed() && OffHeapSeq.allocatedBytes() == before;
+
+        try (OffHeapSeq.OfLong longs = LongSeq.range(3).toOffHeap();
+             OffHeapSeq.OfDouble doubles = DoubleSeq.range(0, 1, 0.5).toOffHeap()) {
+            assertTo(longs.boxed(), "0,1,2");
+            assert doubles.get(1) == 0.5 && doubles.size() == 2;
+        }
+        OffHeapSeq.OfInt closing = IntSeq.range(3000).toOffHeap();
+        long[] total = {0};
+        closing.consume(i -> {
+            if (i == 10) {
+                closing.close();
+            }
+            total[0] += i;
+        });
+        assert closing.isClosed() && total[0] == IntSeq.range(3000).sum() && OffHeapSeq.allocatedBytes() == before;
+        for (long i : new long[]{0, 1023, 1024, 3071, 3072, OffHeapSeq.GROWING_END - 1, OffHeapSeq.GROWING_END, 1L << 33}) {
+            int k = OffHeapSeq.chunkOf(i);
+            assert OffHeapSeq.startOf(k) <= i && i < OffHeapSeq.startOf(k + 1);
+        }
+    }
+
+    @Test
+    public void testSpill() {
+        try (SpillSeq<Integer> seq = IntSeq.range(1000).boxed().cache(100, Serializer.ofInt())) {
+            assert seq.size() == 1000 && seq.inMemory() == 100 && seq.spilled() == 900;
+            assert seq.spilledBytes() == 900 * 4;
+            assert seq.toList().equals(IntSeq.range(1000).boxed().toList());
+            assert seq.asIterable().toList().equals(seq.toList());
+            assertTo(seq.drop(98).take(4), "98,99,100,101");
+        }
+        try (SpillSeq<String> seq = Seq.of("a", "bb", "ccc", "dddd").cache(3, String::length, Serializer.ofString())) {
+            assert seq.inMemory() == 2 && seq.weight() == 3;
+            assertTo(seq, "a,bb,ccc,dddd");
+        }
+        SpillSeq<Integer> closed = IntSeq.range(10).boxed().cache(3, Serializer.ofInt());
+        closed.close();
+        assert closed.isClosed();
+        try {
+            closed.consume(i -> {});
+            assert false;
+        } catch (IllegalStateException ignore) {
+        }
+        try {
+            closed.add(10);
+            assert false;
+        } catch (IllegalStateException ignore) {
+        }
+        SpillSeq<Integer> racing = IntSeq.range(10).boxed().cache(3, Serializer.ofInt());
+        Iterator<Integer> partial = racing.iterator();
+        assert partial.next() == 0 && partial.next() == 1 && partial.next() == 2 && partial.next() == 3;
+        ItrUtil.close(partial);
+        assert !partial.hasNext();
+        Iterator<Integer> pending = racing.iterator();
+        assert pending.next() == 0 && pending.next() == 1 && pending.next() == 2;
+        racing.close();
+        try {
+            pending.next();
+            assert false;
+        } catch (IllegalStateException ignore) {
+        }
+        SpillSeq<Integer> small = Seq.of(1, 2).cache(10, Serializer.ofJava());
+        assert !small.isSpilled() && small.spilledBytes() == 0;
+        assertTo(small, "1,2");
+    }
+
+    @Test
+    public void testSortByPrimitive() {
+        Seq<String> seq = Seq.of("b3", "a1", "c3", "d-2", "e1", "f0");
+        ToIntFunction<String> key = s -> Integer.parseInt(s.substring(1));
+        assertTo(seq.sortByInt(key), "d-2,f0,a1,e1,b3,c3");
+        assertTo(seq.sortByIntDesc(key), "b3,c3,a1,e1,f0,d-2");
+        assertTo(seq.sortByLong(s -> key.applyAsInt(s) * (1L << 40)), "d-2,f0,a1,e1,b3,c3");
+        assertTo(seq.sortByLongDesc(s -> key.applyAsInt(s) - (1L << 50)), "b3,c3,a1,e1,f0,d-2");
+        assertTo(seq.sortByDouble(s -> key.applyAsInt(s) / 2.0), "d-2,f0,a1,e1,b3,c3");
+        assertTo(seq.sortByDoubleDesc(s -> key.applyAsInt(s) == 0 ? -0.0 : key.applyAsInt(s)), "b3,c3,a1,e1,f0,d-2");
+        assertTo(seq.reduce(Reducer.sortByInt(key)), "d-2,f0,a1,e1,b3,c3");
+
+        Random random = new Random(0);
+        List<Long> longs = Seq.gen(random::nextLong).take(5000).toList();
+        assert Seq.of(longs).sortByLong(Long::longValue).equals(Seq.of(longs).sorted());
+        List<Double> doubles = Seq.gen(random::nextGaussian).take(5000).toList();
+        assert Seq.of(doubles).sortByDouble(Double::doubleValue).equals(Seq.of(doubles).sorted());
+    }
+
+    @Test
+    public void testParallelSort() {
+        Random random = new Random(1);
+        List<Integer> ints = Seq.gen(() -> random.nextInt(1000)).take(50000).toList();
+        Seq<Integer> seq = Seq.of(ints);
+        assert seq.parallelSorted().equals(seq.sorted());
+        assert seq.parallelSortedDesc().equals(seq.sortedDesc());
+        assert seq.parallelSortBy(i -> i % 7).equals(seq.sortBy(i -> i % 7));
+        assert seq.parallelSortByInt(i -> i % 7).equals(seq.sortByInt(i -> i % 7));
+        assert seq.parallelSortByIntDesc(i -> i % 7).equals(seq.sortByIntDesc(i -> i % 7));
+        assert seq.parallelSortByLong(i -> -i).equals(seq.sortByLong(i -> -i));
+        assert seq.parallelSortByDoubleDesc(i -> i / 3.0).equals(seq.sortByDoubleDesc(i -> i / 3.0));
+        assertTo(Seq.of(3, 1, 2).parallelSortByLongDesc(i -> i), "3,2,1");
+
+        IntSeq is = IntSeq.of(ints.stream().mapToInt(i -> i).toArray());
+        assert Arrays.equals(is.parallelSorted().toArray(), is.sorted().toArray());
+        assertTo(IntSeq.of(3, 1, 2).sorted().boxed(), "1,2,3");
+    }
+
+    @Test
+    public void testExternalSort() {
+        Random random = new Random(2);
+        List<Integer> ints = Seq.gen(() -> random.nextInt(500)).take(10000).toList();
+        Seq<Integer> seq = Seq.of(ints);
+        assert seq.sortExternal(null, Serializer.ofInt(), 100, 4).toList().equals(seq.sorted());
+        assert seq.sortExternal(Comparator.reverseOrder(), Serializer.ofInt(), 1000, 64).toList().equals(seq.sortedDesc());
+        assertTo(seq.sortExternal(null, Serializer.ofInt(), 7, 2).take(3), "0,0,0");
+        assertTo(Seq.of(3, 1, 2).sortExternal(null, Serializer.ofInt()), "1,2,3");
+
+        Comparator<String> byLength = Comparator.comparingInt(String::length);
+        Seq<String> lines = ByteSource.of(Arrays.asList("ccc", "a", "bb", "d", "ee", "f")).toSeq();
+        assertTo(lines.sortExternal(byLength, Serializer.ofString(), 2, 2), "a,d,f,bb,ee,ccc");
+    }
+
+    @Test
+    public void testTopK() {
+        Seq<Integer> seq = Seq.of(5, 1, 9, 3, 7, 2, 8);
+        assertTo(seq.topK(3, Comparator.naturalOrder()), "9,8,7");
+        assertTo(seq.bottomK(3, Comparator.naturalOrder()), "1,2,3");
+        assertTo(seq.topKBy(2, i -> -i), "1,2");
+        assertTo(seq.topKByInt(10, i -> i), "9,8,7,5,3,2,1");
+        assertTo(seq.bottomKByInt(2, i -> i), "1,2");
+        assertTo(seq.topKByLong(2, i -> i * (1L << 40)), "9,8");
+        assertTo(seq.bottomKByLong(1, i -> i), "1");
+        assertTo(Seq.of(-1.5, 2.0, -0.5, 0.0).topKByDouble(2, d -> d), "2.0,0.0");
+        assertTo(Seq.of(-1.5, 2.0, -0.5, 0.0).bottomKByDouble(2, d -> d), "-1.5,-0.5");
+        assert seq.topK(0, Comparator.naturalOrder()).isEmpty();
+
+        Random random = new Random(3);
+        List<Integer> ints = Seq.gen(() -> random.nextInt(100000)).take(20000).toList();
+        List<Integer> expected = Seq.of(ints).sortedDesc().subList(0, 100);
+        assert Seq.of(ints).topKByInt(100, i -> i).equals(expected);
+        assert Seq.of(ints).reduceParallel(Async.common(), 1000, Reducer.topKByInt(100, i -> i)).equals(expected);
+        assert Seq.of(ints).reduceParallel(Async.common(), 1000, Reducer.topK(100, Comparator.<Integer>naturalOrder())).equals(expected);
+    }
+
+    @Test
+    public void testGroupByAdjacent() {
+        Seq<String> seq = Seq.of("a1", "a2", "b3", "a4", "c5", "c6");
+        assertTo(seq.groupByAdjacent(s -> s.charAt(0)).paired(), "(a,[a1, a2]),(b,[b3]),(a,[a4]),(c,[c5, c6])");
+        assertTo(seq.groupByAdjacent(s -> s.charAt(0), Reducer.count()).paired(), "(a,2),(b,1),(a,1),(c,2)");
+        assertTo(seq.groupByAdjacent(s -> s.charAt(0), Reducer.join("|", s -> s)).paired(), "(a,a1|a2),(b,b3),(a,a4),(c,c5|c6)");
+        assertTo(Seq.<String>empty().groupByAdjacent(s -> s).paired(), "");
+        Reducer<String, Object> nothing = Reducer.of(() -> null, (v, s) -> {});
+        assertTo(seq.groupByAdjacent(s -> s.charAt(0), nothing).paired(), "(a,null),(b,null),(a,null),(c,null)");
+
+        ArraySeq<String> events = new ArraySeq<>();
+        Seq.of(1, 1, 2, 3, 3).onEach(i -> events.add("in" + i))
+            .groupByAdjacent(i -> i, Reducer.count())
+            .consume((k, v) -> events.add("out" + k));
+        assertTo(events, "in1,in1,in2,out1,in3,out2,in3,out3");
+    }
+
+    @Test
+    public void testGroupTopN() {
+        Seq<String> seq = Seq.of("a3", "b1", "a9", "b7", "a5", "c2", "b4", "a1");
+        ToIntFunction<String> score = s -> s.charAt(1) - '0';
+        SeqMap<Character, ArraySeq<String>> map = seq.groupTopNByInt(s -> s.charAt(0), 2, score);
+        assert map.size() == 3;
+        assertTo(map.get('a'), "a9,a5");
+        assertTo(map.get('b'), "b7,b4");
+        assertTo(map.get('c'), "c2");
+        assertTo(seq.groupTopNBy(s -> s.charAt(0), 1, s -> -score.applyAsInt(s)).get('a'), "a1");
+        assertTo(seq.groupTopN(s -> s.charAt(0), 3, Comparator.naturalOrder()).get('a'), "a9,a5,a3");
+        assertTo(seq.groupTopNByLong(s -> s.charAt(0), 1, score::applyAsInt).get('b'), "b7");
+        assertTo(seq.groupTopNByDouble(s -> s.charAt(0), 1, s -> -score.applyAsInt(s)).get('b'), "b1");
+
+        Random random = new Random(4);
+        List<Integer> ints = Seq.gen(() -> random.nextInt(100000)).take(20000).toList();
+        SeqMap<Integer, ArraySeq<Integer>> parallel = Seq.of(ints)
+            .reduceParallel(Async.common(), 1000, Reducer.groupTopNByInt(i -> i % 7, 5, i -> i));
+        assert parallel.size() == 7;
+        parallel.forEach((k, v) -> {
+            assert v.equals(Seq.of(ints).filter(i -> i % 7 == k).sortedDesc().subList(0, 5));
+        });
+    }
+
+    @Test
+    public void testMergeSorted() {
+        Seq<Integer> a = Seq.of(1, 4, 4, 9);
+        Seq<Integer> b = IntSeq.of(2, 4, 8).boxed();
+        Seq<Integer> c = Seq.of(0, 9, 10);
+        assertTo(Seq.mergeSorted(null, a, b, c), "0,1,2,4,4,4,8,9,9,10");
+        assertTo(Seq.mergeSortedDistinct(null, a, b, c), "0,1,2,4,8,9,10");
+        assertTo(Seq.mergeSorted(null, Integer::sum, a, b, c), "0,1,2,12,8,18,10");
+        assertTo(Seq.mergeSorted(Comparator.reverseOrder(), Seq.of(5, 3), Seq.of(4, 1)), "5,4,3,1");
+        assertTo(Seq.mergeSorted(null, a, Seq.gen(0, i -> i + 2)).take(5), "0,1,2,4,4");
+        assertTo(Seq.mergeSorted(null, Arrays.asList(a, Seq.empty())), "1,4,4,9");
+
+        Seq<String> day1 = ByteSource.of(Arrays.asList("a", "c", "e")).toSeq();
+        Seq<String> day2 = ByteSource.of(Arrays.asList("b", "c", "d")).toSeq();
+        assertTo(Seq.mergeSortedDistinct(null, day1, day2), "a,b,c,d,e");
+    }
+
     @Test
     public void testChunked() {
         List<Integer> list = Arrays.asList(0, 2, 4, 1, 6, 3, 5, 7, 10, 11, 12);
@@ -172,6 +458,293 @@ public class SeqTest {
         })).cache().consume(ForkJoinTask::join);
     }
 
+    @Test
+    public void testReduceParallel() {
+        Async async = Async.common();
+        Seq<Integer> seq = IntSeq.range(10000).boxed();
+        assert seq.reduceParallel(async, 100, Reducer.sumInt(i -> i)) == 49995000;
+        assert seq.reduceParallel(async, 100, Reducer.toList()).sorted().equals(seq.toList());
+        assert seq.reduceParallel(async, Reducer.max(Integer::compare)) == 9999;
+        SeqMap<Integer, Integer> counts = seq.reduceParallel(async, 64, Reducer.groupBy(i -> i % 3, Reducer.count()));
+        assert counts.get(0) == 3334 && counts.get(1) == 3333 : counts;
+        assert Seq.<Integer>empty().reduceParallel(async, Reducer.count()) == 0;
+        assertTo(IntSeq.range(5).boxed().reduceParallel(async, 2, Reducer.partition(i -> i % 2 == 0)).first.sorted(), "0,2,4");
+
+        ExecutorService single = Executors.newFixedThreadPool(1);
+        Async one = Async.of(single);
+        Object task = one.submit(() -> {
+            assert seq.reduceParallel(one, 10, Reducer.sumInt(i -> i)) == 49995000;
+        });
+        one.join(task);
+        single.shutdown();
+        try {
+            seq.reduceParallel(async, 10, Reducer.sumInt(i -> 1 / (i - 5000)));
+            assert false;
+        } catch (ArithmeticException ignored) {
+        }
+    }
+
+    @Test
+    public void testParallelBatched() {
+        LongAdder sum = new LongAdder();
+        IntSeq.range(100000).boxed().parallel(Async.common(), 4).consume(sum::add);
+        assert sum.sum() == 4999950000L;
+        ForkJoinPool single = new ForkJoinPool(1);
+        LongAdder inPool = new LongAdder();
+        single.submit(() -> IntSeq.range(10000).boxed().parallel(Async.of(single), 2).consume(inPool::add)).join();
+        single.shutdown();
+        assert inPool.sum() == 49995000L;
+        try {
+            Seq.of(1, 2, 3).parallel().consume(i -> {
+                throw new IllegalStateException("boom");
+            });
+            assert false;
+        } catch (IllegalStateException e) {
+            assert "boom".equals(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testMapParallel() {
+        Function<Integer, Integer> slow = i -> {
+            Async.delay((i * 7) % 5);
+            return i * 2;
+        };
+        Seq<Integer> seq = IntSeq.range(40).boxed();
+        assert seq.mapParallel(4, slow).toList().equals(seq.map(slow).toList());
+        assertTo(seq.mapParallel(3, slow).take(3), "0,2,4");
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        ArraySeq<Integer> list = new ArraySeq<>();
+        AsyncSeq<Integer> async = Async.of(executor).toAsync(seq).mapParallel(4, slow);
+        async.consume(list::add);
+        async.joinConsume();
+        executor.shutdown();
+        assert list.equals(seq.map(slow).toList()) : list;
+
+        ExecutorService single = Executors.newFixedThreadPool(1);
+        ArraySeq<Integer> shared = new ArraySeq<>();
+        AsyncSeq<Integer> sharedAsync = Async.of(single).toAsync(seq).mapParallel(4, slow);
+        sharedAsync.consume(shared::add);
+        sharedAsync.joinConsume();
+        single.shutdown();
+        assert shared.equals(seq.map(slow).toList()) : shared;
+    }
+
+    @Test
+    public void testBoundedChannel() {
+        BoundedChannel<Integer> channel = new BoundedChannel<>(4);
+        Thread producer = new Thread(() -> {
+            IntSeq.range(1000).boxed().consume(channel::offer);
+            channel.close();
+        });
+        producer.start();
+        assert channel.sumInt(i -> i) == 499500;
+        assert !channel.offer(1);
+
+        List<Integer> list = IntSeq.range(10).boxed().toList();
+        BoundedChannel<Integer> newest = new BoundedChannel<>(3, BoundedChannel.Overflow.DROP_NEWEST);
+        assert newest.offerAll(list) == 3 && newest.dropped() == 7;
+        newest.close();
+        assertTo(newest, "0,1,2");
+        BoundedChannel<Integer> oldest = new BoundedChannel<>(3, BoundedChannel.Overflow.DROP_OLDEST);
+        oldest.offerAll(list);
+        oldest.close();
+        assertTo(oldest, "7,8,9");
+        BoundedChannel<Integer> conflated = new BoundedChannel<>(3, BoundedChannel.Overflow.CONFLATE);
+        conflated.offerAll(list);
+        conflated.close();
+        assertTo(conflated, "9");
+    }
+
+    @Test
+    public void testChannel() {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        Async async = Async.of(executor);
+        Seq<Integer> seq = IntSeq.range(100000).boxed();
+        for (SpscRing.Wait wait : SpscRing.Wait.values()) {
+            assert async.toChannel(16, wait, seq).sumInt(i -> i) == 704982704 : wait;
+        }
+        assertTo(async.toChannel(Seq.of(1, null, 3)).map(String::valueOf), "1,null,3");
+        assertTo(async.toChannel(4, SpscRing.Wait.BLOCKING, Seq.gen(0, i -> i + 1)).take(5), "0,1,2,3,4");
+        executor.shutdown();
+    }
+
+    @Test
+    public void testShareIn() {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        Async async = Async.of(executor);
+        BoundedChannel<Integer> channel = new BoundedChannel<>(16);
+        MulticastRing<Integer> shared = channel.shareIn(1024, true, async, new CancelToken());
+        ConcurrentSeq<Integer> results = new ConcurrentSeq<>();
+        CountDownLatch latch = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            shared.consume(t -> {
+                if (t < 0) {
+                    latch.countDown();
+                } else {
+                    results.add(t);
+                }
+            });
+        }
+        IntSeq.range(1000).boxed().consume(channel::offer);
+        channel.offer(-1);
+        channel.close();
+        Async.apply(latch::await);
+        assert results.size() == 3000 && results.sumInt(i -> i) == 3 * 499500;
+        assert shared.subscribers().all(s -> s.dropped() == 0);
+        executor.shutdown();
+    }
+
+    @Test
+    public void testStateIn() {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        Async async = Async.of(executor);
+        BoundedChannel<Integer> channel = new BoundedChannel<>(16);
+        StateSlot<Integer> state = channel.stateIn(true, async, new CancelToken());
+        CountDownLatch latch = new CountDownLatch(3);
+        int[][] seen = new int[3][2];
+        for (int i = 0; i < 3; i++) {
+            int[] last = seen[i];
+            state.consume(t -> {
+                assert t >= last[0];
+                last[0] = t;
+                last[1]++;
+                Async.delay(1);
+                if (t == 999) {
+                    latch.countDown();
+                }
+            });
+        }
+        IntSeq.range(1000).boxed().duplicateEach(2).consume(channel::offer);
+        channel.close();
+        Async.apply(latch::await);
+        assert state.value() == 999 && state.version() == 1000;
+        for (int[] last : seen) {
+            assert last[0] == 999 && last[1] <= 1000;
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void testThreadAsync() {
+        assert VirtualThreads.isSupported() == Double.parseDouble(System.getProperty("java.specification.version")) >= 21;
+        Async async = VirtualThreads.isSupported() ? Async.virtual() : Async.of(Executors.defaultThreadFactory());
+        LongAdder sum = new LongAdder();
+        async.joinAll(IntSeq.range(100).boxed().map(i -> () -> sum.add(i)));
+        assert sum.sum() == 4950;
+        try {
+            async.joinAll(Seq.of(() -> Async.delay(10000), () -> {
+                throw new IllegalStateException("boom");
+            }));
+            assert false;
+        } catch (IllegalStateException e) {
+            assert "boom".equals(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCancel() {
+        Async async = Async.of(Executors.defaultThreadFactory());
+        LongAdder count = new LongAdder();
+        AsyncSeq<Integer> seq = async.toAsync(Seq.gen(() -> 1));
+        seq.map(i -> i + 1).consume(i -> count.increment());
+        seq.cancelAfter(50, TimeUnit.MILLISECONDS);
+        seq.joinConsume();
+        assert seq.isCancelled() && count.sum() > 0;
+
+        AsyncSeq<Integer> blocked = async.toAsync(c -> {
+            c.accept(1);
+            Async.delay(10000);
+            c.accept(2);
+        });
+        blocked.consume(count::add);
+        Async.delay(20);
+        blocked.cancel();
+        blocked.joinConsume();
+
+        CancelToken token = new CancelToken().withTimeout(50, TimeUnit.MILLISECONDS);
+        MulticastRing<Integer> ring = Seq.gen(() -> 1).shareIn(16, false, async, token);
+        LongAdder shared = new LongAdder();
+        ring.consume(i -> shared.increment());
+        Async.delay(200);
+        assert token.isCancelled() && ring.isCancelled();
+        long n = shared.sum();
+        Async.delay(20);
+        assert shared.sum() == n;
+
+        CancelToken parallel = new CancelToken().cancelAfter(50, TimeUnit.MILLISECONDS);
+        Seq.gen(() -> 1).parallel(async, 2, parallel).consume(i -> Async.delay(1));
+        assert parallel.isCancelled();
+
+        CancelToken root = new CancelToken();
+        for (int i = 0; i < 100; i++) {
+            root.child().cancel();
+            root.withTimeout(1, TimeUnit.HOURS).close();
+            assertTo(async.toChannel(4, SpscRing.Wait.BLOCKING, Seq.of(1, 2), root), "1,2");
+        }
+        AsyncSeq<Integer> derived = async.toAsync(async.toAsync(Seq.of(1), root));
+        derived.consume(count::add);
+        derived.joinConsume();
+        assert root.registered() == 0 : root.registered();
+        assert !derived.isCancelled();
+    }
+
+    @Test
+    public void testGenerator() {
+        Seq<Integer> seq = Seq.gen(1, i -> i + 1);
+        Generator<Integer> iterator = (Generator<Integer>)seq.asIterable().iterator();
+        assert iterator.next() == 1 && iterator.next() == 2 && iterator.next() == 3;
+        iterator.close();
+        assert iterator.isClosed() && !iterator.hasNext();
+
+        assertTo(Seq.of("a", "b", "c").zip(seq.asIterable()).map((s, i) -> s + i), "a1,b2,c3");
+        assertTo(Seq.of(1, null, 3).asIterable().map(String::valueOf), "1,null,3");
+        IntSeq.range(1000).boxed().asIterable().forEach(i -> {});
+        ArraySeq<Integer> list = IntSeq.range(5).boxed().toList();
+        assert list.asIterable(Async.common()) == list && !(Seq.of(1, 2).asIterable().iterator() instanceof Generator);
+        IntArraySeq ints = IntSeq.range(5).cache();
+        assert !(ints.boxed().asIterable().iterator() instanceof Generator);
+        assertTo(ints.subList(1, 4).boxed().asIterable(), "1,2,3");
+        assertTo(LongSeq.range(3).cache().boxed().asIterable(), "0,1,2");
+        assertTo(DoubleSeq.range(0, 1, 0.5).cache().boxed().asIterable(), "0.0,0.5");
+
+        Seq<Integer> error = c -> {
+            c.accept(1);
+            throw new IllegalStateException("boom");
+        };
+        try {
+            for (Integer i : error.asIterable()) {
+                assert i == 1;
+            }
+            assert false;
+        } catch (IllegalStateException e) {
+            assert "boom".equals(e.getMessage());
+        }
+
+        LongAdder running = new LongAdder();
+        Seq<Integer> tracked = c -> {
+            running.increment();
+            try {
+                seq.consume(c);
+            } finally {
+                running.decrement();
+            }
+        };
+        for (int i = 0; i < 20; i++) {
+            for (Integer t : tracked.asIterable()) {
+                if (t > 1) {
+                    break;
+                }
+            }
+        }
+        for (int i = 0; i < 50 && running.sum() > 0; i++) {
+            System.gc();
+            Async.delay(Generator.RECLAIM_MILLIS);
+        }
+        assert running.sum() == 0 : running;
+    }
+
     @Test
     public void testDuplicate() {
         Seq<Integer> seq = Seq.of(1, 2, 3, 4);
@@ -187,6 +760,50 @@ public class SeqTest {
         assertTo(is.circle().take(7).boxed(), "1,2,3,4,1,2,3");
     }
 
+    @Test
+    public void testShortCircuit() {
+        int[] produced = {0};
+        Seq<Integer> seq = Seq.gen(0, i -> {
+            produced[0]++;
+            return i + 1;
+        });
+        assertTo(seq.map(i -> i * 2).filter(i -> i % 4 == 0).take(3), "0,4,8");
+        assert produced[0] == 4 : produced[0];
+        assert seq.find(i -> i > 5).orElse(-1) == 6;
+        assert IntSeq.range(Integer.MAX_VALUE).map(i -> i * 3).find(i -> i > 10).getAsInt() == 12;
+
+        assertTo(Seq.of(1, 2, 3).take(2).appendWith(Seq.of(4, 5)).take(3), "1,2,4");
+        assertTo(Seq.gen(1, i -> i + 1).take(3).circle().take(7), "1,2,3,1,2,3,1");
+        assertTo(IntSeq.range(3).appendWith(IntSeq.range(10, 20)).take(5).boxed(), "0,1,2,10,11");
+        assertTo(Seq.of(1, 2, 3, 4).zip(Seq.repeat(2, "a")).paired().map(p -> p.first + p.second), "1a,2a");
+
+        assertTo(Seq.of(1, 2, 3).appendWith(c -> {
+            while (true) {
+                c.accept(0);
+            }
+        }).filter(i -> i > 0).take(1), "1");
+        ArraySeq<Integer> seen = new ArraySeq<>();
+        assertTo(Seq.of(1, 2, 3).append(4, 5).onEach(seen::add).take(1), "1");
+        assertTo(seen, "1");
+        int[] tested = {0};
+        assertTo(Seq.of(1).appendAll(Collections.nCopies(1000000, 0)).filter(i -> {
+            tested[0]++;
+            return i > 0;
+        }).take(1), "1");
+        assert tested[0] == 1 : tested[0];
+    }
+
+    @Test
+    public void testPrimitiveSeq() {
+        assert LongSeq.range(Integer.MAX_VALUE + 1L, Long.MAX_VALUE).take(3).sum() == 3L * Integer.MAX_VALUE + 6;
+        assert Seq.of("a", "bb", "ccc").mapToLong(String::length).map(t -> t << 32).max() == 3L << 32;
+        assertTo(DoubleSeq.range(0, 1, 0.25).boxed(), "0.0,0.25,0.5,0.75");
+        assert IntSeq.range(5).mapToDouble(i -> i / 2.0).filter(d -> d > 1).sum() == 3.5;
+        assertTo(IntSeq.range(7).chunked(3).map(Arrays::toString), "|", "[0, 1, 2]|[3, 4, 5]|[6]");
+        assertTo(LongSeq.range(5).windowed(3, 2, true).map(Arrays::toString), "|", "[0, 1, 2]|[2, 3, 4]|[4]");
+        assert Arrays.equals(IntSeq.range(25).asLongSeq().toArray(), LongSeq.range(25).toArray());
+    }
+
     @Test
     public void testMatch() {
         String a = "(ab)cd(efg)(h)ijk(lmn)op(q";